@@ -1,9 +1,17 @@
 import java.lang.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Implements an AVL tree.
  * Note that all "matching" is based on the compareTo method.
  * Based on code provided by Mark Allen Weiss (CS 2420 book author)
+ *
+ * Insert and remove walk down once and back up along a path kept in an array, instead of recursing, so they
+ * allocate nothing but the new node. Every node knows the size of its subtree, which gives rank and select in
+ * O(log n). A tree can also be built in O(n) from sorted input, which makes it an ordered index over a sorted list.
+ * Equal items are kept, and an item is placed after the items equal to it.
  */
 public class AVLTree<E extends Comparable<? super E>> {
     /**
@@ -14,18 +22,144 @@ public class AVLTree<E extends Comparable<? super E>> {
     }
 
     /**
-     * Insert into the tree; duplicates are ignored.
+     * Construct a perfectly balanced tree from items in ascending order, in O(n).
+     *
+     * @param sorted the items, in ascending order.
+     * @throws IllegalArgumentException if the items are not in ascending order.
+     */
+    public static <E extends Comparable<? super E>> AVLTree<E> fromSorted(List<? extends E> sorted) {
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i - 1).compareTo(sorted.get(i)) > 0) {
+                throw new IllegalArgumentException("The items are not in ascending order at index " + i + ".");
+            }
+        }
+
+        AVLTree<E> tree = new AVLTree<>();
+        tree.root = tree.build(sorted, 0, sorted.size());
+        return tree;
+    }
+
+    /**
+     * Insert into the tree; an item equal to one already in the tree goes after it.
      *
      * @param value the item to insert.
      */
     public void insert(E value) {
-        root = insert(value, root);
+        if (root == null) {
+            root = new AvlNode(value, null, null);
+            return;
+        }
+
+        int depth = 0;
+        AvlNode node = root;
+        while (true) {
+            path[depth++] = node;
+            AvlNode next = value.compareTo(node.value) < 0 ? node.left : node.right;
+            if (next == null) {
+                break;
+            }
+            node = next;
+        }
+
+        AvlNode added = new AvlNode(value, null, null);
+        if (value.compareTo(node.value) < 0) {
+            node.left = added;
+        } else {
+            node.right = added;
+        }
+        rebalancePath(depth);
+    }
+
+    /**
+     * Return the item in the tree that is equal to the given one, or insert the given one if there is none.
+     * Only walks the tree once.
+     *
+     * @param value the item to find or insert.
+     * @return the item that was already in the tree, or value if it was inserted.
+     */
+    public E findOrInsert(E value) {
+        if (root == null) {
+            root = new AvlNode(value, null, null);
+            return value;
+        }
+
+        int depth = 0;
+        AvlNode node = root;
+        int compareResult;
+        while (true) {
+            compareResult = value.compareTo(node.value);
+            if (compareResult == 0) {
+                clearPath(depth);
+                return node.value;    // Match
+            }
+            path[depth++] = node;
+            AvlNode next = compareResult < 0 ? node.left : node.right;
+            if (next == null) {
+                break;
+            }
+            node = next;
+        }
+
+        AvlNode added = new AvlNode(value, null, null);
+        if (compareResult < 0) {
+            node.left = added;
+        } else {
+            node.right = added;
+        }
+        rebalancePath(depth);
+        return value;
+    }
+
+    /**
+     * Remove the smallest item from the tree and return it.
+     *
+     * @throws NoSuchElementException if the tree is empty.
+     */
+    public E deleteMin() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The tree is empty.");
+        }
+        return pollMin();
+    }
+
+    /**
+     * Remove the smallest item from the tree and return it, walking down the tree only once.
+     *
+     * @return the smallest item, or null if the tree is empty.
+     */
+    public E pollMin() {
+        if (root == null) {
+            return null;
+        }
+
+        int depth = 0;
+        AvlNode node = root;
+        while (node.left != null) {
+            path[depth++] = node;
+            node = node.left;
+        }
+
+        // The smallest node has no left child, so its right child takes its place
+        if (depth == 0) {
+            root = node.right;
+        } else {
+            path[depth - 1].left = node.right;
+        }
+        rebalancePath(depth);
+        return node.value;
     }
 
-    public E deleteMin() {
-        E min = findMin(root).value;
-        remove(min);
-        return min;
+    /**
+     * Find the smallest item in the tree.
+     *
+     * @return the smallest item.
+     */
+    public E findMin() {
+        if (isEmpty()) {
+            throw new RuntimeException();
+        }
+
+        return findMin(root).value;
     }
 
     /**
@@ -51,6 +185,58 @@ public class AVLTree<E extends Comparable<? super E>> {
         return contains(value, root);
     }
 
+    /**
+     * Return the number of items in the tree.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Return the number of items in the tree that are smaller than the given one.
+     * If the item is in the tree, this is its position in sorted order, counting from zero.
+     *
+     * @param value the item to rank.
+     */
+    public int rank(E value) {
+        int rank = 0;
+        AvlNode node = root;
+        while (node != null) {
+            if (value.compareTo(node.value) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Return the item at the given position in sorted order, counting from zero.
+     *
+     * @param index the position of the item.
+     * @throws IndexOutOfBoundsException if there is no item at that position.
+     */
+    public E select(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("No item at " + index + " in a tree of " + size() + ".");
+        }
+
+        AvlNode node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
     /**
      * Make the tree logically empty.
      */
@@ -76,12 +262,49 @@ public class AVLTree<E extends Comparable<? super E>> {
     }
 
     /**
-     * Remove an item from the tree.
+     * Remove an item from the tree. If several items are equal to it, one of them is removed.
      *
      * @param val The item to remove.
+     * @return true if an item was removed.
      * */
-    public void remove(E val) {
-        root = remove(val, root);
+    public boolean remove(E val) {
+        int depth = 0;
+        AvlNode node = root;
+        while (node != null) {
+            int compareResult = val.compareTo(node.value);
+            if (compareResult == 0) {
+                break;
+            }
+            path[depth++] = node;
+            node = compareResult < 0 ? node.left : node.right;
+        }
+        if (node == null) {
+            clearPath(depth);
+            return false;   // Item not found; do nothing
+        }
+
+        if (node.left != null && node.right != null) {
+            // Two children: take over the value of the smallest node on the right, and remove that node instead
+            path[depth++] = node;
+            AvlNode successor = node.right;
+            while (successor.left != null) {
+                path[depth++] = successor;
+                successor = successor.left;
+            }
+            node.value = successor.value;
+            node = successor;
+        }
+
+        AvlNode child = node.left != null ? node.left : node.right;
+        if (depth == 0) {
+            root = child;
+        } else if (path[depth - 1].left == node) {
+            path[depth - 1].left = child;
+        } else {
+            path[depth - 1].right = child;
+        }
+        rebalancePath(depth);
+        return true;
     }
 
     /**
@@ -128,6 +351,11 @@ public class AVLTree<E extends Comparable<? super E>> {
 
     private static final int ALLOWED_IMBALANCE = 1;
 
+    /**
+     * An AVL tree of height h holds at least Fib(h + 3) - 1 nodes, so no tree that fits in memory has a path this long.
+     */
+    private static final int MAX_PATH = 64;
+
     // Assume t is either balanced or within one of being balanced
     private AvlNode balance(AvlNode node) {
         if (node == null) {
@@ -148,31 +376,48 @@ public class AVLTree<E extends Comparable<? super E>> {
             }
         }
 
-        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        update(node);
         return node;
     }
 
     /**
-     * Internal method to insert into a subtree.  Duplicates are allowed
-     *
-     * @param value the item to insert.
-     * @param node  the node that roots the subtree.
-     * @return the new root of the subtree.
+     * Walk back up the path of an insert or remove, from the given depth to the root, restoring heights, sizes
+     * and balance. Each rebalanced subtree is hung back on its parent in the place the old one had.
      */
-    private AvlNode insert(E value, AvlNode node) {
-        if (node == null) {
-            return new AvlNode(value, null, null);
+    private void rebalancePath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            AvlNode node = path[i];
+            AvlNode balanced = balance(node);
+            if (i == 0) {
+                root = balanced;
+            } else if (path[i - 1].left == node) {
+                path[i - 1].left = balanced;
+            } else {
+                path[i - 1].right = balanced;
+            }
+            path[i] = null;
         }
+    }
 
-        int compareResult = value.compareTo(node.value);
+    /**
+     * Let go of the nodes a walk down the tree left on the path when it did not change the tree,
+     * so they do not keep removed subtrees reachable.
+     */
+    private void clearPath(int depth) {
+        Arrays.fill(path, 0, depth, null);
+    }
 
-        if (compareResult < 0) {
-            node.left = insert(value, node.left);
-        } else {
-            node.right = insert(value, node.right);
+    /**
+     * Internal method to build a perfectly balanced subtree from a range of sorted items.
+     */
+    private AvlNode build(List<? extends E> sorted, int from, int to) {
+        if (from >= to) {
+            return null;
         }
-
-        return balance(node);
+        int middle = (from + to) >>> 1;
+        AvlNode node = new AvlNode(sorted.get(middle), build(sorted, from, middle), build(sorted, middle + 1, to));
+        update(node);
+        return node;
     }
 
     /**
@@ -226,31 +471,50 @@ public class AVLTree<E extends Comparable<? super E>> {
         return node.height;
     }
 
+    /**
+     * Return the number of nodes in the subtree rooted at node, or 0, if null.
+     */
+    private int size(AvlNode node) {
+        if (node == null) {
+            return 0;
+        }
+
+        return node.size;
+    }
+
+    /**
+     * Recompute the height and size of a node from its children.
+     */
+    private void update(AvlNode node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
     /**
      * Rotate binary tree node with left child.
      * For AVL trees, this is a single rotation for case 1.
-     * Update heights, then return new root.
+     * Update heights and sizes, then return new root.
      */
     private AvlNode rightRotation(AvlNode node) {
         AvlNode theLeft = node.left;
         node.left = theLeft.right;
         theLeft.right = node;
-        node.height = Math.max(height(node.left), height(node.right)) + 1;
-        theLeft.height = Math.max(height(theLeft.left), node.height) + 1;
+        update(node);
+        update(theLeft);
         return theLeft;
     }
 
     /**
      * Rotate binary tree node with right child.
      * For AVL trees, this is a single rotation for case 4.
-     * Update heights, then return new root.
+     * Update heights and sizes, then return new root.
      */
     private AvlNode leftRotation(AvlNode node) {
         AvlNode theRight = node.right;
         node.right = theRight.left;
         theRight.left = node;
-        node.height = Math.max(height(node.left), height(node.right)) + 1;
-        theRight.height = Math.max(height(theRight.right), node.height) + 1;
+        update(node);
+        update(theRight);
         return theRight;
     }
 
@@ -258,7 +522,7 @@ public class AVLTree<E extends Comparable<? super E>> {
      * Double rotate binary tree node: first left child
      * with its right child; then node k3 with new left child.
      * For AVL trees, this is a double rotation for case 2.
-     * Update heights, then return new root.
+     * Update heights and sizes, then return new root.
      */
     private AvlNode doubleRightRotation(AvlNode node) {
         node.left = leftRotation(node.left);
@@ -269,7 +533,7 @@ public class AVLTree<E extends Comparable<? super E>> {
      * Double rotate binary tree node: first right child
      * with its left child; then node k1 with new right child.
      * For AVL trees, this is a double rotation for case 3.
-     * Update heights, then return new root.
+     * Update heights and sizes, then return new root.
      */
     private AvlNode doubleLeftRotation(AvlNode node) {
         node.right = rightRotation(node.right);
@@ -278,47 +542,18 @@ public class AVLTree<E extends Comparable<? super E>> {
 
     /**
      * Internal method to find the smallest item in a subtree.
-     * @param t the node that roots the subtree.
+     * @param node the node that roots the subtree.
      * @return node containing the smallest item.
      */
-    private AvlNode findMin( AvlNode t )
-    {
-        if( t == null ) {
+    private AvlNode findMin(AvlNode node) {
+        if (node == null) {
             return null;
         }
-        else if( t.left == null ) {
-            return t;
-        }
-        return findMin( t.left );
-    }
-
-    /**
-     * Internal method to remove from a subtree.
-     * @param x the item to remove.
-     * @param t the node that roots the subtree.
-     * @return the new root of the subtree.
-     */
-    private AvlNode remove(E x, AvlNode t ) {
-        if( t == null ) {
-            return t;       // Item not found; do nothing
-        }
-
-        int compareResult = x.compareTo( t.value );
 
-        if( compareResult < 0 ) {
-            t.left = remove(x, t.left);
-        }
-        else if( compareResult > 0 ) {
-            t.right = remove(x, t.right);
-        }
-        else if( t.left != null && t.right != null ) {  // Two children
-            t.value = findMin( t.right ).value;
-            t.right = remove( t.value, t.right );
-        }
-        else {
-            t = (t.left != null) ? t.left : t.right;
+        while (node.left != null) {
+            node = node.left;
         }
-        return  balance( t );
+        return node;
     }
 
     private class AvlNode {
@@ -327,16 +562,24 @@ public class AVLTree<E extends Comparable<? super E>> {
             this.left = left;
             this.right = right;
             height = 0;
+            size = 1;
         }
 
         E value;      // The data in the node
         AvlNode left;         // Left child
         AvlNode right;        // Right child
         int height;       // Height
+        int size;         // Number of nodes in the subtree rooted here
     }
 
     /**
      * The tree root.
      */
     private AvlNode root;
+
+    /**
+     * The nodes from the root down to the one being changed, reused by every insert and remove.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final AvlNode[] path = (AvlNode[]) new AVLTree.AvlNode[MAX_PATH];
 }
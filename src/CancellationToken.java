@@ -0,0 +1,23 @@
+/**
+ * Lets one thread ask the searches of another to stop.
+ * A search that was given the token checks it as it runs, and stops soon after it is cancelled.
+ * Once cancelled a token stays cancelled, so each query or batch of queries should get its own.
+ * */
+public class CancellationToken {
+
+    /**
+     * Ask every search holding the token to stop.
+     * */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private volatile boolean cancelled;
+
+}
@@ -0,0 +1,281 @@
+import java.util.Arrays;
+
+/**
+ * The connected components of the one-letter-difference graph.
+ * Two words can only be joined by a ladder if they are in the same component, so a query for words in different
+ * components can be rejected without searching.
+ * Components never span word lengths, and the components of each length get consecutive numbers.
+ * When words are added or removed, the index is patched instead of rebuilt: an added word joins, and if needed merges,
+ * the components of its neighbors, and a removed word leaves its component whole. Finding out whether a removal split
+ * a component takes a search of the whole component, so connected may still say yes for words that lost their last
+ * ladder. That costs a search that finds nothing, but it never says no for words that have a ladder.
+ * */
+public class ComponentIndex {
+
+    /**
+     * Constructor.
+     * Find the components of the graph with a union-find pass over its edges.
+     * */
+    public ComponentIndex(WordGraph graph) {
+        int wordCount = graph.size();
+
+        // Union-find with union by size and path halving
+        int[] parent = new int[wordCount];
+        int[] size = new int[wordCount];
+        for (int id = 0; id < wordCount; id++) {
+            parent[id] = id;
+            size[id] = 1;
+        }
+        for (int id = 0; id < wordCount; id++) {
+            for (int i = graph.neighborStart(id); i < graph.neighborEnd(id); i++) {
+                int neighbor = graph.neighbor(i);
+                if (neighbor > id) {
+                    union(parent, size, id, neighbor);
+                }
+            }
+        }
+
+        // Number the components in order of their first word, so each length gets a consecutive range
+        this.components = new int[wordCount];
+        int[] label = new int[wordCount];
+        Arrays.fill(label, -1);
+        int[] sizes = new int[16];
+        int count = 0;
+        this.lengthStart = new int[graph.maxLength() + 2];
+        for (int length = 0; length <= graph.maxLength(); length++) {
+            this.lengthStart[length] = count;
+            for (int id = graph.firstIdOfLength(length); id < graph.endIdOfLength(length); id++) {
+                int root = find(parent, id);
+                if (label[root] < 0) {
+                    if (count == sizes.length) {
+                        sizes = Arrays.copyOf(sizes, sizes.length * 2);
+                    }
+                    label[root] = count;
+                    sizes[count++] = size[root];
+                }
+                this.components[id] = label[root];
+            }
+        }
+        this.lengthStart[graph.maxLength() + 1] = count;
+        this.sizes = Arrays.copyOf(sizes, count);
+
+        this.lengthCounts = new int[graph.maxLength() + 1];
+        for (int length = 0; length <= graph.maxLength(); length++) {
+            this.lengthCounts[length] = this.lengthStart[length + 1] - this.lengthStart[length];
+        }
+        this.componentCount = count;
+        this.nextComponent = count;
+        this.addedComponents = null;
+        this.mergedInto = null;
+        this.changedSizes = null;
+        this.addedLengths = null;
+    }
+
+    /**
+     * Return the index after a word was added with the given neighbors.
+     * The word joins the component of its neighbors, and any of their components that were apart are merged.
+     * */
+    public ComponentIndex withWord(int id, int length, int[] neighbors) {
+        ComponentIndex next = new ComponentIndex(this, length);
+
+        // Merge into the largest of the neighbors' components, so the other components stay few
+        int joined = -1;
+        for (int neighbor : neighbors) {
+            int component = component(neighbor);
+            if (joined < 0 || size(component) > size(joined)) {
+                joined = component;
+            }
+        }
+        if (joined < 0) {
+            joined = next.nextComponent++;
+            next.addedLengths.set(joined - this.sizes.length, length + 1);
+            next.setSize(joined, 0);
+            next.lengthCounts[length]++;
+            next.componentCount++;
+        }
+        for (int neighbor : neighbors) {
+            int component = next.component(neighbor);
+            if (component != joined) {
+                next.mergedInto.set(component, joined + 1);
+                next.setSize(joined, next.size(joined) + next.size(component));
+                next.lengthCounts[length]--;
+                next.componentCount--;
+            }
+        }
+
+        next.addedComponents.set(id, joined + 1);
+        next.setSize(joined, next.size(joined) + 1);
+        return next;
+    }
+
+    /**
+     * Return the index after a word was removed. Its component is kept whole and only shrinks by one.
+     * */
+    public ComponentIndex withoutWord(int id, int length) {
+        ComponentIndex next = new ComponentIndex(this, length);
+        int component = component(id);
+        int size = size(component) - 1;
+        next.setSize(component, size);
+        if (size == 0) {
+            next.lengthCounts[length]--;
+            next.componentCount--;
+        }
+        return next;
+    }
+
+    /**
+     * Return the number of the component that contains the word.
+     * */
+    public int component(int id) {
+        if (this.addedComponents == null) {
+            return this.components[id];
+        }
+
+        int added = this.addedComponents.get(id);
+        int component = added > 0 ? added - 1 : this.components[id];
+        for (int merged = this.mergedInto.get(component); merged > 0; merged = this.mergedInto.get(component)) {
+            component = merged - 1;
+        }
+        return component;
+    }
+
+    /**
+     * Return true if the two words are in the same component, so a ladder may exist between them.
+     * */
+    public boolean connected(int id1, int id2) {
+        return component(id1) == component(id2);
+    }
+
+    /**
+     * Return the number of words in the component that contains the word.
+     * */
+    public int componentSize(int id) {
+        return size(component(id));
+    }
+
+    /**
+     * Return the total number of components.
+     * */
+    public int componentCount() {
+        return this.componentCount;
+    }
+
+    /**
+     * Return the number of components made of words of the given length.
+     * */
+    public int componentCount(int length) {
+        if (length < 0 || length >= this.lengthCounts.length) {
+            return 0;
+        }
+        return this.lengthCounts[length];
+    }
+
+    /**
+     * Return the sizes of the components made of words of the given length, largest first.
+     * */
+    public int[] componentSizes(int length) {
+        if (componentCount(length) == 0) {
+            return new int[0];
+        }
+
+        int[] lengthSizes;
+        if (this.addedComponents == null) {
+            lengthSizes = Arrays.copyOfRange(this.sizes, this.lengthStart[length], this.lengthStart[length + 1]);
+        }
+        else {
+            // Skip the components that were merged into others or lost all their words
+            lengthSizes = new int[componentCount(length)];
+            int count = 0;
+            if (length < this.lengthStart.length - 1) {
+                for (int component = this.lengthStart[length]; component < this.lengthStart[length + 1]; component++) {
+                    if (this.mergedInto.get(component) == 0 && size(component) > 0) {
+                        lengthSizes[count++] = size(component);
+                    }
+                }
+            }
+            for (int component = this.sizes.length; component < this.nextComponent; component++) {
+                if (this.addedLengths.get(component - this.sizes.length) == length + 1
+                        && this.mergedInto.get(component) == 0 && size(component) > 0) {
+                    lengthSizes[count++] = size(component);
+                }
+            }
+        }
+        Arrays.sort(lengthSizes);
+        for (int i = 0, j = lengthSizes.length - 1; i < j; i++, j--) {
+            int temp = lengthSizes[i];
+            lengthSizes[i] = lengthSizes[j];
+            lengthSizes[j] = temp;
+        }
+        return lengthSizes;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final int[] components;     // Component number of each word
+    private final int[] sizes;          // Number of words in each component
+    private final int[] lengthStart;    // First component number of each word length
+    private final int[] lengthCounts;   // Number of components of each word length
+    private int componentCount;
+    private int nextComponent;
+
+    // Changes since the index was built, or null if there are none. Every entry is stored plus one, so zero means none
+    private final PagedIntArray addedComponents;    // Component of each word added since
+    private final PagedIntArray mergedInto;         // Component that a merged component became part of
+    private final PagedIntArray changedSizes;       // Sizes that changed since
+    private final PagedIntArray addedLengths;       // Word length of each component created since, counted from the last built one
+
+    /**
+     * Constructor for the next version of an index, with room for words of the given length.
+     * */
+    private ComponentIndex(ComponentIndex previous, int length) {
+        this.components = previous.components;
+        this.sizes = previous.sizes;
+        this.lengthStart = previous.lengthStart;
+        this.lengthCounts = Arrays.copyOf(previous.lengthCounts, Math.max(previous.lengthCounts.length, length + 1));
+        this.componentCount = previous.componentCount;
+        this.nextComponent = previous.nextComponent;
+        boolean changed = previous.addedComponents != null;
+        this.addedComponents = changed ? previous.addedComponents.copy() : new PagedIntArray();
+        this.mergedInto = changed ? previous.mergedInto.copy() : new PagedIntArray();
+        this.changedSizes = changed ? previous.changedSizes.copy() : new PagedIntArray();
+        this.addedLengths = changed ? previous.addedLengths.copy() : new PagedIntArray();
+    }
+
+    private int size(int component) {
+        if (this.changedSizes != null) {
+            int changed = this.changedSizes.get(component);
+            if (changed > 0) {
+                return changed - 1;
+            }
+        }
+        return component < this.sizes.length ? this.sizes[component] : 0;
+    }
+
+    private void setSize(int component, int size) {
+        this.changedSizes.set(component, size + 1);
+    }
+
+    private static int find(int[] parent, int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    private static void union(int[] parent, int[] size, int id1, int id2) {
+        int root1 = find(parent, id1);
+        int root2 = find(parent, id2);
+        if (root1 == root2) {
+            return;
+        }
+        if (size[root1] < size[root2]) {
+            int temp = root1;
+            root1 = root2;
+            root2 = temp;
+        }
+        parent[root2] = root1;
+        size[root1] += size[root2];
+    }
+
+}
@@ -0,0 +1,226 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Loads a word list into per-length buckets.
+ * The file is split into chunks that end on a newline, and every chunk is mapped into memory, parsed and bucketed
+ * on its own thread. The buckets are then merged in file order. Words are lowercased, blank lines are skipped and
+ * only the first copy of a repeated word is kept. The file is read as UTF-8.
+ * */
+public class DictionaryLoader {
+
+    /**
+     * Bytes per chunk. Chunks are large enough that the work of splitting the file is small next to parsing it.
+     * */
+    public static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+
+    /**
+     * Read the word list and return it bucketed by length; the index into the returned list is the word length.
+     * */
+    public static ArrayList<ArrayList<String>> load(Path file) throws IOException {
+        return load(file, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * Read the word list in chunks of about the given number of bytes.
+     * */
+    public static ArrayList<ArrayList<String>> load(Path file, int chunkBytes) throws IOException {
+        if (chunkBytes < 1) {
+            throw new IllegalArgumentException("Chunks must hold at least one byte.");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = chunkBoundaries(channel, chunkBytes);
+
+            // Parse every chunk in parallel; each one fills buckets of its own
+            List<List<ArrayList<String>>> chunks;
+            try {
+                chunks = IntStream.range(0, boundaries.length - 1).parallel()
+                        .mapToObj(i -> parseChunk(channel, boundaries[i], boundaries[i + 1]))
+                        .toList();
+            }
+            catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+
+            return merge(chunks);
+        }
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    /**
+     * Return the offsets the chunks start at, followed by the size of the file.
+     * Every chunk but the last ends just after a newline, so no line is split between two chunks.
+     * */
+    private static long[] chunkBoundaries(FileChannel channel, int chunkBytes) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        ByteBuffer probe = ByteBuffer.allocate(256);
+        long position = 0;
+        while (position + chunkBytes < size) {
+            // Scan forward from the tentative end of the chunk to the next newline
+            long scan = position + chunkBytes;
+            long boundary = -1;
+            while (boundary < 0 && scan < size) {
+                probe.clear();
+                int read = channel.read(probe, scan);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        boundary = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+            if (boundary < 0 || boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            position = boundary;
+        }
+        boundaries.add(size);
+
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Map one chunk and bucket its words by length, in the order they appear.
+     * */
+    private static List<ArrayList<String>> parseChunk(FileChannel channel, long start, long end) {
+        List<ArrayList<String>> buckets = new ArrayList<>();
+        if (end <= start) {
+            return buckets;
+        }
+
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        byte[] line = new byte[64];
+        int lineLength = 0;
+        int limit = buffer.limit();
+        for (int i = 0; i <= limit; i++) {
+            byte b = i < limit ? buffer.get(i) : (byte) '\n';
+            if (b != '\n') {
+                if (lineLength == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[lineLength++] = b;
+                continue;
+            }
+
+            String word = toWord(line, lineLength);
+            lineLength = 0;
+            if (word.isEmpty()) {
+                continue;
+            }
+            while (buckets.size() <= word.length()) {
+                buckets.add(new ArrayList<>());
+            }
+            buckets.get(word.length()).add(word);
+        }
+        return buckets;
+    }
+
+    /**
+     * Turn the bytes of one line into a lowercase word with surrounding whitespace removed.
+     * ASCII lines, which is nearly all of them, are lowercased byte by byte without decoding.
+     * */
+    private static String toWord(byte[] line, int length) {
+        int start = 0;
+        int end = length;
+        while (start < end && isSpace(line[start])) {
+            start++;
+        }
+        while (end > start && isSpace(line[end - 1])) {
+            end--;
+        }
+
+        boolean ascii = true;
+        for (int i = start; i < end; i++) {
+            if (line[i] < 0) {
+                ascii = false;
+                break;
+            }
+        }
+
+        if (!ascii) {
+            return new String(line, start, end - start, StandardCharsets.UTF_8).strip().toLowerCase(Locale.ROOT);
+        }
+        for (int i = start; i < end; i++) {
+            if (line[i] >= 'A' && line[i] <= 'Z') {
+                line[i] += 'a' - 'A';
+            }
+        }
+        return new String(line, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+
+    /**
+     * Join the buckets of every chunk in file order, keeping only the first copy of each word.
+     * Every length is merged on its own thread.
+     * */
+    private static ArrayList<ArrayList<String>> merge(List<List<ArrayList<String>>> chunks) {
+        int lengths = 0;
+        for (List<ArrayList<String>> chunk : chunks) {
+            lengths = Math.max(lengths, chunk.size());
+        }
+
+        ArrayList<ArrayList<String>> dictionary = new ArrayList<>();
+        for (int length = 0; length < lengths; length++) {
+            dictionary.add(null);
+        }
+
+        IntStream.range(0, lengths).parallel().forEach(length -> {
+            int total = 0;
+            for (List<ArrayList<String>> chunk : chunks) {
+                total += length < chunk.size() ? chunk.get(length).size() : 0;
+            }
+
+            ArrayList<String> words = new ArrayList<>(total);
+            HashSet<String> seen = new HashSet<>(Math.max(16, total * 2));
+            for (List<ArrayList<String>> chunk : chunks) {
+                if (length < chunk.size()) {
+                    for (String word : chunk.get(length)) {
+                        if (seen.add(word)) {
+                            words.add(word);
+                        }
+                    }
+                }
+            }
+            dictionary.set(length, words);
+        });
+
+        return dictionary;
+    }
+
+}
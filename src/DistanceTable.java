@@ -0,0 +1,356 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * All-pairs shortest ladder lengths for short words, so distance queries become a lookup.
+ * Each covered word length gets an n by n matrix of moves, stored in 4 bits per entry when every distance fits
+ * and in 8 bits otherwise. Ladders are rebuilt from the matrix by always stepping to a neighbor that is one move
+ * closer to the end word.
+ * The matrices grow with the square of the number of words, so they are only worth building for short words.
+ * Even then they are large: for the bundled dictionary, lengths 2 to 5 take about 88 MB, almost all of it for the
+ * 8548 five-letter words, whose longest ladders need 8-bit entries. open writes them next to the dictionary, so
+ * callers should only open them where that much disk is acceptable.
+ * Rows and columns are the slots of the words. Tables are not patched when words are added or removed, so a length
+ * whose words changed since the tables were built is searched again until the tables are rebuilt.
+ * */
+public class DistanceTable {
+
+    // PUBLIC MEMBERS --------------------------------------------------------------------------------------------------
+
+    /**
+     * Bump this whenever the file layout changes so that old tables are rebuilt.
+     * */
+    public static final int FILE_VERSION = 1;
+
+    public static final int DEFAULT_MIN_LENGTH = 2;
+    public static final int DEFAULT_MAX_LENGTH = 5;
+
+    /**
+     * Load the tables for a dictionary file.
+     * Use the tables stored next to the dictionary if they are valid and were built from the same dictionary.
+     * Otherwise build them for the default word lengths and write them for the next process.
+     * A graph whose words changed since it was built no longer matches any dictionary file, so its tables are built in
+     * memory and neither read from nor written to disk.
+     * */
+    public static DistanceTable open(String dictionaryFile, WordGraph graph) {
+        if (graph.dictionaryChecksum() == 0) {
+            return build(graph, DEFAULT_MIN_LENGTH, DEFAULT_MAX_LENGTH);
+        }
+        Path path = Path.of(dictionaryFile + ".distances");
+
+        if (Files.exists(path)) {
+            try {
+                return load(path, graph);
+            }
+            catch (IOException ex) {
+                System.out.println("Rebuilding distance tables, the stored tables could not be used: " + ex.getMessage());
+            }
+        }
+
+        DistanceTable table = build(graph, DEFAULT_MIN_LENGTH, DEFAULT_MAX_LENGTH);
+        try {
+            table.write(path);
+        }
+        catch (IOException ex) {
+            System.out.println("An error occurred trying to write the distance tables: " + ex);
+        }
+        return table;
+    }
+
+    /**
+     * Build the tables for every word length from minLength to maxLength.
+     * Each length runs a breadth-first search from every one of its words, in parallel.
+     * */
+    public static DistanceTable build(WordGraph graph, int minLength, int maxLength) {
+        minLength = Math.max(minLength, 0);
+        maxLength = Math.min(maxLength, graph.maxLength());
+
+        DistanceTable table = new DistanceTable(graph, minLength, Math.max(maxLength, minLength - 1));
+        for (int length = minLength; length <= maxLength; length++) {
+            table.build(length);
+        }
+        return table;
+    }
+
+    /**
+     * Map tables written by write into memory.
+     * The tables must have been built from the same dictionary as the graph.
+     * */
+    public static DistanceTable load(Path path, WordGraph graph) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a distance table file: " + path);
+        }
+        if (buffer.getInt(4) != FILE_VERSION) {
+            throw new IOException("Unsupported distance table version " + buffer.getInt(4));
+        }
+        if (graph.dictionaryChecksum() == 0 || buffer.getLong(8) != graph.dictionaryChecksum()) {
+            throw new IOException("Distance tables were built from a different dictionary: " + path);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_BYTES, buffer.limit() - HEADER_BYTES));
+        if (crc.getValue() != buffer.getLong(16)) {
+            throw new IOException("Distance table checksum mismatch: " + path);
+        }
+
+        int minLength = buffer.getInt(24);
+        int maxLength = buffer.getInt(28);
+        DistanceTable table = new DistanceTable(graph, minLength, maxLength);
+
+        int position = HEADER_BYTES;
+        for (int length = minLength; length <= maxLength; length++) {
+            int count = buffer.getInt(position);
+            int bits = buffer.getInt(position + 4);
+            int bytes = buffer.getInt(position + 8);
+            position += TABLE_HEADER_BYTES;
+            if (count != graph.slotCount(length) || (bits != 4 && bits != 8)
+                    || bytes != stride(count, bits) * count || position + (long) bytes > buffer.limit()) {
+                throw new IOException("Distance table for length " + length + " does not match the dictionary: " + path);
+            }
+            table.bits[length - minLength] = bits;
+            table.matrices[length - minLength] = buffer.slice(position, bytes);
+            position += bytes;
+        }
+        return table;
+    }
+
+    /**
+     * Write the tables to a file.
+     * The file is written next to its final location and moved into place, so readers never see half a file.
+     * Tables of a graph whose words changed since it was built are not tied to any dictionary and cannot be written.
+     * */
+    public void write(Path path) throws IOException {
+        if (this.graph.dictionaryChecksum() == 0) {
+            throw new IOException("Distance tables of a changed word graph cannot be written: " + path);
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer[] tableHeaders = new ByteBuffer[this.matrices.length];
+        for (int i = 0; i < this.matrices.length; i++) {
+            tableHeaders[i] = ByteBuffer.allocate(TABLE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            tableHeaders[i].putInt(count(this.minLength + i))
+                    .putInt(this.bits[i])
+                    .putInt(this.matrices[i].limit())
+                    .putInt(0)
+                    .flip();
+            crc.update(tableHeaders[i].duplicate());
+            crc.update(this.matrices[i].duplicate().clear());
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+                .putInt(FILE_VERSION)
+                .putLong(this.graph.dictionaryChecksum())
+                .putLong(crc.getValue())
+                .putInt(this.minLength)
+                .putInt(this.maxLength)
+                .flip();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            for (int i = 0; i < this.matrices.length; i++) {
+                writeFully(channel, tableHeaders[i]);
+                writeFully(channel, this.matrices[i].duplicate().clear());
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Return true if queries for words of the given length can be answered from the tables.
+     * */
+    public boolean covers(int length) {
+        return length >= this.minLength && length <= this.maxLength;
+    }
+
+    /**
+     * Return true if queries for words of the given length can be answered from the tables on the given version of
+     * the word graph, which is only so while the words of that length are the ones the tables were built for.
+     * */
+    public boolean covers(WordGraph graph, int length) {
+        return covers(length) && (graph == this.graph || graph.sameWordsAs(this.graph, length));
+    }
+
+    /**
+     * Return the fewest moves needed to get from one word to another, or -1 if no ladder joins them.
+     * Both words must have a length that the tables cover.
+     * */
+    public int distance(int id1, int id2) {
+        int length = this.graph.length(id1);
+        if (!covers(length) || this.graph.length(id2) != length) {
+            throw new IllegalArgumentException("The distance tables do not cover these words.");
+        }
+
+        int table = length - this.minLength;
+        int value = get(this.matrices[table], this.bits[table], count(length), this.graph.slot(id1), this.graph.slot(id2));
+        return value == unreachable(this.bits[table]) ? -1 : value;
+    }
+
+    /**
+     * Return a shortest ladder from one word to another as word IDs, or null if no ladder joins them.
+     * Each step goes to the first neighbor, in ID order, that is one move closer to the end word.
+     * */
+    public int[] ladder(int startId, int endId) {
+        int distance = distance(startId, endId);
+        if (distance < 0) {
+            return null;
+        }
+
+        int[] ladder = new int[distance + 1];
+        ladder[0] = startId;
+        int current = startId;
+        for (int step = 1; step <= distance; step++) {
+            for (int i = this.graph.neighborStart(current); i < this.graph.neighborEnd(current); i++) {
+                int neighbor = this.graph.neighbor(i);
+                if (distance(neighbor, endId) == distance - step) {
+                    current = neighbor;
+                    break;
+                }
+            }
+            ladder[step] = current;
+        }
+        return ladder;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final int MAGIC = 0x574c4431;    // "WLD1"
+    private static final int HEADER_BYTES = 32;
+    private static final int TABLE_HEADER_BYTES = 16;
+
+    private final WordGraph graph;
+    private final int minLength;
+    private final int maxLength;
+    private final int[] bits;               // Bits per entry of each table, 4 or 8
+    private final ByteBuffer[] matrices;    // One matrix per word length, one row per start word
+
+    private DistanceTable(WordGraph graph, int minLength, int maxLength) {
+        this.graph = graph;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        int tables = Math.max(maxLength - minLength + 1, 0);
+        this.bits = new int[tables];
+        this.matrices = new ByteBuffer[tables];
+    }
+
+    private int count(int length) {
+        return this.graph.slotCount(length);
+    }
+
+    /**
+     * Fill in the table for one word length.
+     * Distances are found in a byte matrix and packed into 4 bits per entry afterwards if they all fit.
+     * */
+    private void build(int length) {
+        int count = count(length);
+        if ((long) count * count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("There are too many words of length " + length + " for a distance table.");
+        }
+        byte[] matrix = new byte[count * count];
+
+        // Every row belongs to a single source, so the searches never write to the same place
+        int maxDistance = IntStream.range(0, count).parallel()
+                .map(source -> breadthFirstSearch(length, count, source, matrix))
+                .max()
+                .orElse(0);
+
+        int table = length - this.minLength;
+        if (maxDistance < unreachable(4)) {
+            int stride = stride(count, 4);
+            byte[] packed = new byte[stride * count];
+            for (int row = 0; row < count; row++) {
+                for (int column = 0; column < count; column++) {
+                    int value = Math.min(matrix[row * count + column] & 0xFF, unreachable(4));
+                    packed[row * stride + column / 2] |= (byte) (column % 2 == 0 ? value : value << 4);
+                }
+            }
+            this.bits[table] = 4;
+            this.matrices[table] = ByteBuffer.wrap(packed);
+        }
+        else {
+            this.bits[table] = 8;
+            this.matrices[table] = ByteBuffer.wrap(matrix);
+        }
+    }
+
+    /**
+     * Fill in one row of a byte matrix with the moves from the source to every word of the same length.
+     * Return the largest distance found.
+     * */
+    private int breadthFirstSearch(int length, int count, int source, byte[] matrix) {
+        int row = source * count;
+        for (int i = 0; i < count; i++) {
+            matrix[row + i] = (byte) unreachable(8);
+        }
+
+        int[] queue = new int[count];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        matrix[row + source] = 0;
+        int maxDistance = 0;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int distance = (matrix[row + current] & 0xFF) + 1;
+            int id = this.graph.idAtSlot(length, current);
+            for (int i = this.graph.neighborStart(id); i < this.graph.neighborEnd(id); i++) {
+                int neighbor = this.graph.slot(this.graph.neighbor(i));
+                if ((matrix[row + neighbor] & 0xFF) == unreachable(8)) {
+                    if (distance >= unreachable(8)) {
+                        throw new IllegalStateException("A ladder is too long to store in a distance table.");
+                    }
+                    matrix[row + neighbor] = (byte) distance;
+                    maxDistance = distance;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return maxDistance;
+    }
+
+    /**
+     * Return the value used for words that cannot be reached.
+     * */
+    private static int unreachable(int bits) {
+        return (1 << bits) - 1;
+    }
+
+    /**
+     * Return the number of bytes in one row. Rows start on a byte boundary.
+     * */
+    private static int stride(int count, int bits) {
+        return bits == 4 ? (count + 1) / 2 : count;
+    }
+
+    private static int get(ByteBuffer matrix, int bits, int count, int row, int column) {
+        if (bits == 8) {
+            return matrix.get(row * count + column) & 0xFF;
+        }
+        int packed = matrix.get(row * stride(count, 4) + column / 2) & 0xFF;
+        return column % 2 == 0 ? packed & 0xF : packed >>> 4;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+/**
+ * The cost of a move that changes one letter of a word into another, used to find the cheapest ladder instead of
+ * the shortest one. Costs are small positive ints, so the weighted search can keep its open list in a radix heap.
+ * */
+public interface EdgeCost {
+
+    /**
+     * Return the cost of changing the letter from into the letter to, which is at least minCost.
+     * */
+    int cost(char from, char to);
+
+    /**
+     * Return a lower bound on the cost of any move, which must be at least one.
+     * */
+    int minCost();
+
+    /**
+     * Return the name of the costs, as it appears in the output of play.
+     * */
+    String getName();
+
+}
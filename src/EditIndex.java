@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+/**
+ * Finds the words one inserted or deleted letter away from a word, with the symmetric-delete technique.
+ * Every word is indexed under each of its one-letter deletions, so the words one letter longer than a word are the
+ * ones indexed under the word itself, and the words one letter shorter are its own deletions that are in the
+ * dictionary. Either way a lookup costs a handful of hashes of the word's letters instead of scanning the words one
+ * letter longer and shorter.
+ *
+ * Deletions are indexed by their hash alone, so the index holds one int per deletion and no strings. Words whose
+ * deletions only share a hash are told apart by checking the letters of the few words found.
+ * The index is built for the graph as it was built or loaded, and serves every version made from it: removed words
+ * are skipped, and the words added since are found through the graph, which indexes their deletions as they come.
+ * */
+public class EditIndex {
+
+    /**
+     * Constructor.
+     * Index every word of a graph under each of its one-letter deletions.
+     * */
+    public EditIndex(WordGraph graph) {
+        // Pair the hash of every distinct deletion with the word it came from, then sort to group equal hashes
+        long[] pairs = new long[16];
+        int count = 0;
+        for (int id = 0; id < graph.size(); id++) {
+            String word = graph.word(id);
+            for (int i = 0; i < word.length(); i++) {
+
+                // Deleting any letter of a run of equal letters leaves the same word, so only delete the first
+                if (i > 0 && word.charAt(i) == word.charAt(i - 1)) {
+                    continue;
+                }
+                if (count == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, count * 2);
+                }
+                pairs[count++] = (long) deletionHash(word, i) << 32 | id;
+            }
+        }
+        Arrays.sort(pairs, 0, count);
+
+        this.ids = new int[count];
+        int groups = 0;
+        for (int i = 0; i < count; i++) {
+            this.ids[i] = (int) pairs[i];
+            if (i == 0 || pairs[i] >>> 32 != pairs[i - 1] >>> 32) {
+                groups++;
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(groups, 1)) << 2;
+        this.hashes = new int[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        int mask = capacity - 1;
+        for (int start = 0, end; start < count; start = end) {
+            int hash = (int) (pairs[start] >>> 32);
+            end = start + 1;
+            while (end < count && (int) (pairs[end] >>> 32) == hash) {
+                end++;
+            }
+            int i = spread(hash) & mask;
+            while (this.starts[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            this.hashes[i] = hash;
+            this.starts[i] = start + 1;
+            this.ends[i] = end;
+        }
+    }
+
+    /**
+     * Return the IDs of the words in the given version of the graph that are one inserted or deleted letter away
+     * from the word with the given ID, in ID order.
+     * The version must have been made from the graph the index was built for.
+     * */
+    public int[] neighbors(WordGraph graph, int id) {
+        String word = graph.word(id);
+        int[] neighbors = new int[16];
+        int count = 0;
+
+        // Shorter words are the word's deletions that are in the dictionary
+        for (int i = 0; i < word.length(); i++) {
+            if (i > 0 && word.charAt(i) == word.charAt(i - 1)) {
+                continue;
+            }
+            int shorter = graph.id(word.substring(0, i) + word.substring(i + 1));
+            if (shorter >= 0) {
+                if (count == neighbors.length) {
+                    neighbors = Arrays.copyOf(neighbors, count * 2);
+                }
+                neighbors[count++] = shorter;
+            }
+        }
+
+        // Longer words are the ones indexed under the word, which only share its hash unless their letters match
+        int hash = word.hashCode();
+        int mask = this.starts.length - 1;
+        for (int i = spread(hash) & mask; this.starts[i] != 0; i = (i + 1) & mask) {
+            if (this.hashes[i] != hash) {
+                continue;
+            }
+            for (int j = this.starts[i] - 1; j < this.ends[i]; j++) {
+                int longer = this.ids[j];
+                if (graph.contains(longer) && isDeletion(graph.word(longer), word)) {
+                    if (count == neighbors.length) {
+                        neighbors = Arrays.copyOf(neighbors, count * 2);
+                    }
+                    neighbors[count++] = longer;
+                }
+            }
+            break;
+        }
+
+        // Words added after the index was built are not in it, but the graph indexes their deletions as they are added
+        for (int added : graph.addedWithDeletion(word)) {
+            if (count == neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, count * 2);
+            }
+            neighbors[count++] = added;
+        }
+
+        neighbors = Arrays.copyOf(neighbors, count);
+        Arrays.sort(neighbors);
+        return neighbors;
+    }
+
+    /**
+     * Return true if deleting one letter of the longer word leaves the shorter one.
+     * */
+    public static boolean isDeletion(String longer, String shorter) {
+        if (longer.length() != shorter.length() + 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < shorter.length() && longer.charAt(i) == shorter.charAt(i)) {
+            i++;
+        }
+        return longer.regionMatches(i + 1, shorter, i, shorter.length() - i);
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final int[] ids;        // Word IDs, grouped by the hash of the deletion they are indexed under
+    private final int[] hashes;     // The deletion hash of each entry of the table
+    private final int[] starts;     // One more than where each entry's group starts in ids, or 0 if it is empty
+    private final int[] ends;       // Where each entry's group ends in ids
+
+    /**
+     * Hash a word with the letter at the given position deleted, exactly as String.hashCode hashes the deletion.
+     * */
+    private static int deletionHash(String word, int position) {
+        int hash = 0;
+        for (int i = 0; i < word.length(); i++) {
+            if (i != position) {
+                hash = 31 * hash + word.charAt(i);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Mix the high bits of a string hash into the low bits, which are the only ones the mask keeps.
+     * */
+    private static int spread(int hash) {
+        int mixed = hash * 0x9e3779b9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+}
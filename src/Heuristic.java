@@ -0,0 +1,18 @@
+/**
+ * An estimate of how many moves are left from a word to the end word, used to order the A* search.
+ * To keep the ladders shortest, the estimate must never be more than the real number of moves,
+ * and it must not drop by more than one when a single move is made.
+ * */
+public interface Heuristic {
+
+    /**
+     * Return a lower bound on the number of moves from word to end in the given version of the word graph.
+     * */
+    int estimate(WordGraph graph, int word, int end);
+
+    /**
+     * Return the name of the heuristic, as it appears in the output of play.
+     * */
+    String getName();
+
+}
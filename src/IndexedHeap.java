@@ -0,0 +1,188 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary min-heap of int IDs in the range [0, capacity), ordered by an int priority.
+ * Ties are broken by the smaller ID, so the order of removal never depends on insertion order.
+ * Every ID is in the heap at most once and its position is tracked, which allows decreaseKey in O(log n).
+ * The heap lives in primitive arrays that are allocated once, so no work is allocated per operation.
+ * */
+public class IndexedHeap {
+
+    /**
+     * Construct an empty heap for IDs in the range [0, capacity) with the given number of children per node.
+     * */
+    public IndexedHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("A heap needs at least two children per node.");
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.priorities = new int[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(this.positions, -1);
+        this.size = 0;
+    }
+
+    /**
+     * Construct an empty 4-ary heap for IDs in the range [0, capacity).
+     * */
+    public IndexedHeap(int capacity) {
+        this(capacity, 4);
+    }
+
+    /**
+     * Test if the heap is empty.
+     * */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Return the number of IDs in the heap.
+     * */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Return true if the ID is currently in the heap.
+     * */
+    public boolean contains(int id) {
+        return this.positions[id] >= 0;
+    }
+
+    /**
+     * Return the priority of an ID that is in the heap.
+     * */
+    public int priority(int id) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("ID " + id + " is not in the heap.");
+        }
+        return this.priorities[id];
+    }
+
+    /**
+     * Add an ID that is not yet in the heap.
+     * */
+    public void insert(int id, int priority) {
+        if (contains(id)) {
+            throw new IllegalArgumentException("ID " + id + " is already in the heap.");
+        }
+        this.priorities[id] = priority;
+        this.heap[this.size] = id;
+        this.positions[id] = this.size;
+        this.size++;
+        siftUp(this.size - 1);
+    }
+
+    /**
+     * Lower the priority of an ID that is in the heap.
+     * */
+    public void decreaseKey(int id, int priority) {
+        if (priority > priority(id)) {
+            throw new IllegalArgumentException("The new priority of ID " + id + " is larger than the old one.");
+        }
+        this.priorities[id] = priority;
+        siftUp(this.positions[id]);
+    }
+
+    /**
+     * Remove the ID with the smallest priority and return it.
+     * */
+    public int deleteMin() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap is empty. Cannot delete the minimum.");
+        }
+
+        int min = this.heap[0];
+        this.positions[min] = -1;
+        this.size--;
+        if (this.size > 0) {
+            this.heap[0] = this.heap[this.size];
+            this.positions[this.heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Make the heap logically empty.
+     * */
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.positions[this.heap[i]] = -1;
+        }
+        this.size = 0;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final int arity;
+    private final int[] heap;          // IDs in heap order
+    private final int[] priorities;    // Priority of each ID
+    private final int[] positions;     // Index of each ID into the heap, or -1 if it is not in the heap
+    private int size;
+
+    /**
+     * Return true if the first ID should come out of the heap before the second.
+     * */
+    private boolean less(int id1, int id2) {
+        int res = Integer.compare(this.priorities[id1], this.priorities[id2]);
+        if (res != 0) {
+            return res < 0;
+        }
+        return id1 < id2;
+    }
+
+    /**
+     * Move the ID at the given index up until its parent comes before it.
+     * */
+    private void siftUp(int index) {
+        int id = this.heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) / this.arity;
+            int parent = this.heap[parentIndex];
+            if (!less(id, parent)) {
+                break;
+            }
+            this.heap[index] = parent;
+            this.positions[parent] = index;
+            index = parentIndex;
+        }
+        this.heap[index] = id;
+        this.positions[id] = index;
+    }
+
+    /**
+     * Move the ID at the given index down until it comes before all of its children.
+     * */
+    private void siftDown(int index) {
+        int id = this.heap[index];
+        while (true) {
+            int firstChild = index * this.arity + 1;
+            if (firstChild >= this.size) {
+                break;
+            }
+
+            // Find the child that comes first
+            int best = firstChild;
+            int lastChild = Math.min(firstChild + this.arity, this.size);
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (less(this.heap[child], this.heap[best])) {
+                    best = child;
+                }
+            }
+
+            if (!less(this.heap[best], id)) {
+                break;
+            }
+            this.heap[index] = this.heap[best];
+            this.positions[this.heap[index]] = index;
+            index = best;
+        }
+        this.heap[index] = id;
+        this.positions[id] = index;
+    }
+
+}
@@ -0,0 +1,91 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A first-in first-out queue of ints, kept in a ring buffer that doubles when it fills up.
+ * Values are stored unboxed and the buffer is reused as the queue drains, so once it has grown to the largest size
+ * the queue reaches, enqueue and dequeue allocate nothing. Each entry takes four bytes.
+ * */
+public class IntQueue {
+
+    /**
+     * Default constructor. Create an empty queue.
+     * */
+    public IntQueue() {
+        this(16);
+    }
+
+    /**
+     * Create an empty queue with room for the given number of values before it has to grow.
+     * */
+    public IntQueue(int capacity) {
+        this.items = new int[Math.max(Integer.highestOneBit(Math.max(capacity, 1) - 1) << 1, 2)];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Add a value to the back of the queue.
+     * */
+    public void enqueue(int value) {
+        if (this.size == this.items.length) {
+            grow();
+        }
+        this.items[(this.head + this.size) & (this.items.length - 1)] = value;
+        this.size++;
+    }
+
+    /**
+     * Remove a value from the front of the queue.
+     * */
+    public int dequeue() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty. Cannot dequeue an item.");
+        }
+        int value = this.items[this.head];
+        this.head = (this.head + 1) & (this.items.length - 1);
+        this.size--;
+        return value;
+    }
+
+    /**
+     * Return true if the queue is empty and false otherwise.
+     * */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Return the number of values in the queue.
+     * */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Make the queue empty, keeping its buffer.
+     * */
+    public void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private int[] items;    // The ring buffer; its length is a power of two
+    private int head;       // Index of the front of the queue
+    private int size;
+
+    /**
+     * Double the buffer, moving the values to its start in queue order.
+     * */
+    private void grow() {
+        int[] grown = new int[this.items.length * 2];
+        int firstPart = this.items.length - this.head;
+        System.arraycopy(this.items, this.head, grown, 0, firstPart);
+        System.arraycopy(this.items, 0, grown, firstPart, this.head);
+        this.items = grown;
+        this.head = 0;
+    }
+
+}
@@ -0,0 +1,271 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Offline analytics of the one-letter graph: the eccentricity of every word, which is the most moves a shortest
+ * ladder from it to another word of its component takes, and from those the diameter, the hardest pairs and the hub
+ * words of each word length.
+ *
+ * That takes a breadth-first search from every word. Run one at a time, they would scan every adjacency list once per
+ * word, so they run 64 at a time instead, one bit of a long per source. Each word keeps the bits of the searches that
+ * have reached it, and each level ORs the bits a word was just reached by into its neighbors, so one scan of an
+ * adjacency list advances every search of the batch that is at that word. Batches are independent and run in parallel.
+ *
+ * Usage: java LadderAnalytics [dictionary file] [report file]
+ * The report is printed, and also written to the report file if one is given.
+ * */
+public class LadderAnalytics {
+
+    public static final int EXAMPLES = 5;
+
+    public static void main(String[] args) throws IOException {
+        String dictionaryFile = args.length > 0 ? args[0] : "dictionary.txt";
+        Path reportFile = args.length > 1 ? Path.of(args[1]) : null;
+
+        LadderAnalytics analytics = new LadderAnalytics(WordGraph.open(dictionaryFile));
+        StringBuilder report = new StringBuilder();
+        for (int length = 1; length <= analytics.graph.maxLength(); length++) {
+            if (analytics.graph.slotCount(length) == 0) {
+                continue;
+            }
+            long start = System.nanoTime();
+            LengthReport lengthReport = analytics.analyze(length);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            String text = analytics.format(lengthReport) + System.lineSeparator()
+                    + " analyzed in " + elapsedMillis + " ms" + System.lineSeparator();
+            System.out.print(text);
+            report.append(text);
+        }
+
+        if (reportFile != null) {
+            Files.writeString(reportFile, report);
+        }
+    }
+
+    // PUBLIC MEMBERS --------------------------------------------------------------------------------------------------
+
+    /**
+     * What the analytics found for one word length.
+     * The radius and the hubs are those of the largest component, since the other components are usually a handful
+     * of words. Each hardest pair is the IDs of two words as far apart as the diameter.
+     * */
+    public record LengthReport(int length, int words, int components, int largestComponent, int diameter,
+                               int radius, List<int[]> hardestPairs, int hubCount, int[] hubs) {}
+
+    /**
+     * Constructor.
+     * */
+    public LadderAnalytics(WordGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Return the eccentricity of every word of the given length, indexed by slot, or -1 for a slot whose word was
+     * removed. A word with no neighbors has eccentricity 0.
+     * */
+    public int[] eccentricities(int length) {
+        int count = this.graph.slotCount(length);
+        int[] eccentricity = new int[count];
+        searchAll(length, eccentricity, new int[count]);
+        return eccentricity;
+    }
+
+    /**
+     * Find the diameter, radius, hardest pairs and hubs of the words of the given length.
+     * */
+    public LengthReport analyze(int length) {
+        int count = this.graph.slotCount(length);
+        int[] eccentricity = new int[count];
+        int[] farthest = new int[count];
+        searchAll(length, eccentricity, farthest);
+
+        // The diameter is the largest eccentricity, and every word that has it is one end of a hardest pair
+        int words = 0;
+        int diameter = 0;
+        for (int slot = 0; slot < count; slot++) {
+            if (eccentricity[slot] >= 0) {
+                words++;
+                diameter = Math.max(diameter, eccentricity[slot]);
+            }
+        }
+        List<int[]> hardestPairs = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int slot = 0; slot < count && hardestPairs.size() < EXAMPLES; slot++) {
+            if (eccentricity[slot] != diameter) {
+                continue;
+            }
+            int first = Math.min(slot, farthest[slot]);
+            int second = Math.max(slot, farthest[slot]);
+            if (seen.add((long) first << 32 | second)) {
+                hardestPairs.add(new int[] { this.graph.idAtSlot(length, slot), this.graph.idAtSlot(length, farthest[slot]) });
+            }
+        }
+
+        // The hubs are the words of the largest component that reach every other word of it in the fewest moves
+        ComponentIndex components = this.graph.components();
+        int largest = -1;
+        for (int slot = 0; slot < count; slot++) {
+            int id = this.graph.idAtSlot(length, slot);
+            if (eccentricity[slot] >= 0 && (largest < 0 || components.componentSize(id) > components.componentSize(largest))) {
+                largest = id;
+            }
+        }
+        int radius = Integer.MAX_VALUE;
+        int hubCount = 0;
+        int[] hubs = new int[EXAMPLES];
+        for (int slot = 0; slot < count; slot++) {
+            int id = this.graph.idAtSlot(length, slot);
+            if (eccentricity[slot] < 0 || !components.connected(id, largest) || eccentricity[slot] > radius) {
+                continue;
+            }
+            if (eccentricity[slot] < radius) {
+                radius = eccentricity[slot];
+                hubCount = 0;
+            }
+            if (hubCount < EXAMPLES) {
+                hubs[hubCount] = id;
+            }
+            hubCount++;
+        }
+
+        return new LengthReport(length, words, words == 0 ? 0 : components.componentCount(length),
+                largest < 0 ? 0 : components.componentSize(largest), diameter, largest < 0 ? 0 : radius,
+                hardestPairs, hubCount, Arrays.copyOf(hubs, Math.min(hubCount, EXAMPLES)));
+    }
+
+    /**
+     * Describe a length's report, with a shortest ladder for each hardest pair.
+     * */
+    public String format(LengthReport report) {
+        String newLine = System.lineSeparator();
+        StringBuilder text = new StringBuilder();
+        text.append("Length ").append(report.length()).append(": ").append(report.words()).append(" words, ")
+                .append(report.components()).append(" components, largest ").append(report.largestComponent())
+                .append(newLine);
+        text.append(" diameter ").append(report.diameter()).append(", radius of the largest component ")
+                .append(report.radius()).append(newLine);
+
+        LadderGame game = new LadderGameExhaustive(this.graph, true);
+        for (int[] pair : report.hardestPairs()) {
+            LadderResult result = game.solve(pair[0], pair[1]);
+            text.append(" hardest ").append(this.graph.word(pair[0])).append(" -> ").append(this.graph.word(pair[1]))
+                    .append(":").append(game.format(result)).append(newLine);
+        }
+
+        List<String> hubs = new ArrayList<>();
+        for (int hub : report.hubs()) {
+            hubs.add(this.graph.word(hub));
+        }
+        text.append(" hubs ").append(String.join(" ", hubs));
+        if (report.hubCount() > hubs.size()) {
+            text.append(" and ").append(report.hubCount() - hubs.size()).append(" more");
+        }
+        return text.toString();
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final int BATCH = Long.SIZE;
+
+    private final WordGraph graph;
+
+    /**
+     * Run a breadth-first search from every word of the given length, in parallel batches of 64.
+     * Fill in the eccentricity of every slot, and the slot of a word that far from it.
+     * */
+    private void searchAll(int length, int[] eccentricity, int[] farthest) {
+        int count = this.graph.slotCount(length);
+
+        // Copy the edges into arrays indexed by slot, so the searches neither look slots up nor go through the
+        // version's patched adjacency lists
+        int[] offsets = new int[count + 1];
+        for (int slot = 0; slot < count; slot++) {
+            int id = this.graph.idAtSlot(length, slot);
+            offsets[slot + 1] = offsets[slot] + (this.graph.contains(id) ? this.graph.degree(id) : 0);
+        }
+        int[] targets = new int[offsets[count]];
+        for (int slot = 0; slot < count; slot++) {
+            int id = this.graph.idAtSlot(length, slot);
+            int start = this.graph.neighborStart(id);
+            for (int i = offsets[slot]; i < offsets[slot + 1]; i++) {
+                targets[i] = this.graph.slot(this.graph.neighbor(start + i - offsets[slot]));
+            }
+        }
+
+        // Every source is in one batch, so the batches never write to the same place
+        IntStream.range(0, (count + BATCH - 1) / BATCH).parallel()
+                .forEach(batch -> searchBatch(length, offsets, targets, batch * BATCH, eccentricity, farthest));
+    }
+
+    /**
+     * Run the breadth-first searches from up to 64 consecutive slots at once.
+     * Bit b of a word's entry stands for the search from slot firstSource + b.
+     * */
+    private void searchBatch(int length, int[] offsets, int[] targets, int firstSource, int[] eccentricity, int[] farthest) {
+        int count = offsets.length - 1;
+        long[] seen = new long[count];      // Searches that have reached each word
+        long[] current = new long[count];   // Searches that reached each word on the current level
+        long[] next = new long[count];      // Searches that reach each word on the next level
+
+        long levelBits = 0;
+        for (int b = 0; b < BATCH && firstSource + b < count; b++) {
+            int source = firstSource + b;
+            if (!this.graph.contains(this.graph.idAtSlot(length, source))) {
+                eccentricity[source] = -1;
+                continue;
+            }
+            seen[source] = 1L << b;
+            current[source] = 1L << b;
+            levelBits |= 1L << b;
+        }
+
+        for (int level = 0; levelBits != 0; level++) {
+
+            // Pass each word's bits of this level on to its neighbors in one scan of its adjacency list
+            for (int v = 0; v < count; v++) {
+                long bits = current[v];
+                if (bits != 0) {
+                    for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                        next[targets[i]] |= bits;
+                    }
+                }
+            }
+
+            // Keep the searches that reach a word for the first time
+            long nextBits = 0;
+            for (int u = 0; u < count; u++) {
+                long reached = next[u] & ~seen[u];
+                next[u] = reached;
+                seen[u] |= reached;
+                nextBits |= reached;
+            }
+
+            // A search that reached nothing new is done, and the words it reached on this level are the farthest
+            long finished = levelBits & ~nextBits;
+            for (int u = 0; finished != 0; u++) {
+                long ends = current[u] & finished;
+                finished &= ~ends;
+                for (; ends != 0; ends &= ends - 1) {
+                    int source = firstSource + Long.numberOfTrailingZeros(ends);
+                    eccentricity[source] = level;
+                    farthest[source] = u;
+                }
+            }
+
+            long[] swap = current;
+            current = next;
+            next = swap;
+            Arrays.fill(next, 0);
+            levelBits = nextBits;
+        }
+    }
+
+}
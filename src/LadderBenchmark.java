@@ -0,0 +1,314 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks for dictionary loading, neighbor generation, the AVL tree, the open lists and the solvers.
+ * Every benchmark is warmed up and then timed over several iterations. The report gives the mean time per
+ * operation, its spread across iterations, and the bytes allocated per operation, which is what tracks GC pressure.
+ * Queries are drawn with a fixed seed from the largest component of each word length, so runs are comparable.
+ * Only the benchmarking thread's allocation is counted, so the parallel search leaves out what its workers allocate.
+ *
+ * Usage: java LadderBenchmark [dictionary file] [name filter]
+ * The iteration counts and times can be changed with -Dbench.warmup, -Dbench.iterations and -Dbench.millis.
+ * */
+public class LadderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String dictionaryFile = args.length > 0 ? args[0] : "dictionary.txt";
+        String filter = args.length > 1 ? args[1] : "";
+
+        LadderBenchmark benchmark = new LadderBenchmark(dictionaryFile, filter);
+        benchmark.runAll();
+    }
+
+    // PUBLIC MEMBERS --------------------------------------------------------------------------------------------------
+
+    /**
+     * An operation to time. It returns a value so the JIT cannot throw the work away.
+     * */
+    public interface Operation {
+        long run() throws Exception;
+    }
+
+    /**
+     * Constructor.
+     * Load the dictionary once and draw the query sets.
+     * */
+    public LadderBenchmark(String dictionaryFile, String filter) {
+        this.dictionaryFile = dictionaryFile;
+        this.filter = filter;
+        this.graph = WordGraph.open(dictionaryFile);
+        this.exhaustive = new LadderGameExhaustive(graph);
+        this.bidirectional = new LadderGameExhaustive(graph, true);
+        this.parallel = new LadderGameExhaustive(graph, LadderGameExhaustive.Mode.PARALLEL);
+        this.priority = new LadderGamePriority(graph);
+        this.landmark = new LadderGamePriority(graph, new LandmarkHeuristic(graph));
+        this.weightedDijkstra = new LadderGameWeighted(graph, LetterCosts.vowels(1, 3), false);
+        this.weightedAstar = new LadderGameWeighted(graph, LetterCosts.vowels(1, 3), true);
+    }
+
+    /**
+     * Run every benchmark whose name contains the filter and print a report line for each.
+     * */
+    public void runAll() throws Exception {
+        System.out.printf("%-36s %14s %12s %16s%n", "Benchmark", "ns/op", "+- ns/op", "bytes/op");
+
+        benchmark("load.readDictionary", () -> WordGraph.readDictionary(dictionaryFile).size());
+        benchmark("load.snapshot", () -> WordGraph.load(WordGraph.snapshotPathFor(dictionaryFile)).size());
+        benchmark("reset", () -> exhaustive.reset().totalEnqueues);
+
+        for (int length : LENGTHS) {
+            int[] words = sampleWords(length, QUERIES, SEED + length);
+            if (words.length == 0) {
+                continue;
+            }
+
+            int[] index = { 0 };
+            benchmark("oneAway.length" + length, () -> {
+                int word = words[index[0]++ % words.length];
+                return exhaustive.oneAway(word, false, exhaustive.reset()).length;
+            });
+
+            // Fresh strings, as queries bring them, so each lookup pays for hashing the word
+            char[][] letters = new char[words.length][];
+            for (int i = 0; i < words.length; i++) {
+                letters[i] = graph.word(words[i]).toCharArray();
+            }
+            benchmark("graph.id.length" + length, () -> graph.id(new String(letters[index[0]++ % letters.length])));
+        }
+
+        benchmark("avlTree.insertDeleteMin", () -> {
+            AVLTree<Integer> tree = new AVLTree<>();
+            Random random = new Random(SEED);
+            for (int i = 0; i < 1000; i++) {
+                tree.insert(random.nextInt());
+            }
+            long sum = 0;
+            while (!tree.isEmpty()) {
+                sum += tree.deleteMin();
+            }
+            return sum;
+        });
+
+        // Each open list gets the monotone run of inserts and removals of a Dijkstra search over a binary tree of
+        // OPEN_LIST_SIZE words whose edges weigh 1 to 4
+        int[] weights = new Random(SEED).ints(OPEN_LIST_SIZE, 1, 5).toArray();
+        benchmark("openList.radixHeap", () -> {
+            RadixHeap heap = new RadixHeap(OPEN_LIST_SIZE);
+            int[] keys = new int[OPEN_LIST_SIZE];
+            heap.insert(0, 0);
+            long sum = 0;
+            while (!heap.isEmpty()) {
+                int id = heap.deleteMin();
+                sum += keys[id];
+                for (int child = 2 * id + 1; child <= 2 * id + 2 && child < OPEN_LIST_SIZE; child++) {
+                    keys[child] = keys[id] + weights[child];
+                    heap.insert(child, keys[child]);
+                }
+            }
+            return sum;
+        });
+        benchmark("openList.indexedHeap", () -> {
+            IndexedHeap heap = new IndexedHeap(OPEN_LIST_SIZE);
+            int[] keys = new int[OPEN_LIST_SIZE];
+            heap.insert(0, 0);
+            long sum = 0;
+            while (!heap.isEmpty()) {
+                int id = heap.deleteMin();
+                sum += keys[id];
+                for (int child = 2 * id + 1; child <= 2 * id + 2 && child < OPEN_LIST_SIZE; child++) {
+                    keys[child] = keys[id] + weights[child];
+                    heap.insert(child, keys[child]);
+                }
+            }
+            return sum;
+        });
+        benchmark("openList.avlTree", () -> {
+            AVLTree<Long> tree = new AVLTree<>();
+            tree.insert(0L);
+            long sum = 0;
+            for (Long entry = tree.pollMin(); entry != null; entry = tree.pollMin()) {
+                int id = (int) (entry & 0xffffffffL);
+                int key = (int) (entry >>> 32);
+                sum += key;
+                for (int child = 2 * id + 1; child <= 2 * id + 2 && child < OPEN_LIST_SIZE; child++) {
+                    tree.insert((long) (key + weights[child]) << 32 | child);
+                }
+            }
+            return sum;
+        });
+
+        List<String> bucket = new ArrayList<>();
+        for (int id = graph.firstIdOfLength(5); id < graph.endIdOfLength(5); id++) {
+            bucket.add(graph.word(id));
+        }
+        benchmark("avlTree.fromSortedRankSelect", () -> {
+            AVLTree<String> tree = AVLTree.fromSorted(bucket);
+            long sum = 0;
+            for (int i = 0; i < bucket.size(); i += 64) {
+                sum += tree.rank(tree.select(i));
+            }
+            return sum;
+        });
+
+        for (int length : LENGTHS) {
+            int[][] queries = sampleQueries(length, QUERIES, SEED + length);
+            if (queries.length == 0) {
+                continue;
+            }
+            solverBenchmark("play.exhaustive.length" + length, exhaustive, queries);
+            solverBenchmark("play.bidirectional.length" + length, bidirectional, queries);
+            solverBenchmark("play.parallel.length" + length, parallel, queries);
+            solverBenchmark("play.astar.length" + length, priority, queries);
+            solverBenchmark("play.astarLandmark.length" + length, landmark, queries);
+            solverBenchmark("play.weightedDijkstra.length" + length, weightedDijkstra, queries);
+            solverBenchmark("play.weightedAstar.length" + length, weightedAstar, queries);
+        }
+
+        System.out.println("Sink " + sink);
+    }
+
+    /**
+     * Warm an operation up, then time it and print its report line, if its name passes the filter.
+     * */
+    public void benchmark(String name, Operation operation) throws Exception {
+        if (!name.contains(filter)) {
+            return;
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            iteration(operation);
+        }
+
+        double[] nanosPerOperation = new double[ITERATIONS];
+        double bytesPerOperation = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            double[] measured = iteration(operation);
+            nanosPerOperation[i] = measured[0];
+            bytesPerOperation += measured[1] / ITERATIONS;
+        }
+
+        double mean = 0;
+        for (double value : nanosPerOperation) {
+            mean += value / ITERATIONS;
+        }
+        double variance = 0;
+        for (double value : nanosPerOperation) {
+            variance += (value - mean) * (value - mean) / ITERATIONS;
+        }
+
+        System.out.printf("%-36s %14.1f %12.1f %16.1f%n", name, mean, Math.sqrt(variance), bytesPerOperation);
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final long SEED = 20240229L;
+    private static final int QUERIES = 64;
+    private static final int[] LENGTHS = { 3, 4, 5, 6, 7, 8, 9 };
+    private static final int OPEN_LIST_SIZE = 4096;
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 3);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+    private static final long ITERATION_NANOS = Long.getLong("bench.millis", 500L) * 1_000_000L;
+
+    private static volatile long sink;
+
+    private final String dictionaryFile;
+    private final String filter;
+    private final WordGraph graph;
+    private final LadderGame exhaustive;
+    private final LadderGame bidirectional;
+    private final LadderGame parallel;
+    private final LadderGame priority;
+    private final LadderGame landmark;
+    private final LadderGame weightedDijkstra;
+    private final LadderGame weightedAstar;
+
+    /**
+     * Run a solver over a query set, one query per operation.
+     * */
+    private void solverBenchmark(String name, LadderGame game, int[][] queries) throws Exception {
+        int[] index = { 0 };
+        benchmark(name, () -> {
+            int[] query = queries[index[0]++ % queries.length];
+            return game.solve(query[0], query[1]).getTotalEnqueues();
+        });
+    }
+
+    /**
+     * Run an operation repeatedly for one iteration.
+     * Return the nanoseconds and the bytes allocated by this thread, both per operation.
+     * */
+    private static double[] iteration(Operation operation) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long operations = 0;
+        long result = 0;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            result += operation.run();
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_NANOS);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        sink += result;
+        return new double[] { (double) elapsed / operations, (double) allocated / operations };
+    }
+
+    /**
+     * Draw words from the largest component of the given length with a fixed seed.
+     * */
+    private int[] sampleWords(int length, int howMany, long seed) {
+        List<Integer> candidates = largestComponent(length);
+        if (candidates.isEmpty()) {
+            return new int[0];
+        }
+
+        Random random = new Random(seed);
+        int[] words = new int[howMany];
+        for (int i = 0; i < howMany; i++) {
+            words[i] = candidates.get(random.nextInt(candidates.size()));
+        }
+        return words;
+    }
+
+    /**
+     * Draw (start, end) pairs from the largest component of the given length with a fixed seed.
+     * Every pair has a ladder, so the solvers always do a real search.
+     * */
+    private int[][] sampleQueries(int length, int howMany, long seed) {
+        int[] words = sampleWords(length, 2 * howMany, seed);
+        if (words.length == 0) {
+            return new int[0][];
+        }
+
+        int[][] queries = new int[howMany][];
+        for (int i = 0; i < howMany; i++) {
+            queries[i] = new int[] { words[2 * i], words[2 * i + 1] };
+        }
+        return queries;
+    }
+
+    private List<Integer> largestComponent(int length) {
+        ComponentIndex components = graph.components();
+        int largest = -1;
+        for (int id = graph.firstIdOfLength(length); id < graph.endIdOfLength(length); id++) {
+            if (largest < 0 || components.componentSize(id) > components.componentSize(largest)) {
+                largest = id;
+            }
+        }
+
+        List<Integer> words = new ArrayList<>();
+        for (int id = graph.firstIdOfLength(length); id < graph.endIdOfLength(length); id++) {
+            if (components.connected(id, largest)) {
+                words.add(id);
+            }
+        }
+        return words;
+    }
+
+}
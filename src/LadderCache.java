@@ -0,0 +1,178 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded, thread-safe cache of ladder results, evicting the least recently used entries.
+ * Ladders are undirected, so a query for (end, start) is answered from a cached (start, end) result
+ * with the ladder reversed.
+ * Every entry remembers the version of the word graph its result came from, and only answers queries on that version.
+ * A query that finishes on an old version after the dictionary changed can still store its result, but that entry is
+ * never served for the new version, and queries on several live versions do not wipe each other's entries. Entries of
+ * versions that are no longer queried are evicted like any other entry that is not used.
+ * Results depend on the algorithm, so every game should have a cache of its own.
+ * */
+public class LadderCache {
+
+    /**
+     * Constructor.
+     * Hold at most maxEntries results. The entries are spread over independently locked segments,
+     * so the least recently used entry is evicted per segment.
+     * */
+    public LadderCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("A cache needs room for at least one entry.");
+        }
+
+        int segmentCount = Math.min(SEGMENTS, maxEntries);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maxEntries / segmentCount + (i < maxEntries % segmentCount ? 1 : 0);
+            this.segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * Return the cached result for the query, reversed if it was cached the other way around, or null on a miss.
+     * */
+    public LadderResult get(WordGraph graph, int startId, int endId) {
+        long key = key(startId, endId);
+        Segment segment = segment(key);
+        CachedResult entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+        }
+
+        // Word IDs only mean the same words within one version, so an entry of another version is a miss
+        if (entry == null || entry.graph() != graph) {
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        LadderResult result = entry.result();
+        return isForward(result, startId) ? result : result.reversed();
+    }
+
+    /**
+     * Cache the result of a query. Results for invalid input, and of searches that were stopped, are not cached.
+     * */
+    public void put(WordGraph graph, int startId, int endId, LadderResult result) {
+        if (result.getStatus() == LadderResult.Status.INVALID_INPUT || result.isStopped()) {
+            return;
+        }
+
+        // Store the result the way around it was computed; get reverses it when needed
+        long key = key(startId, endId);
+        Segment segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, new CachedResult(graph, result));
+        }
+    }
+
+    /**
+     * Remove every entry, for example to let go of the results of versions that are no longer queried.
+     * */
+    public void invalidate() {
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        this.invalidations.increment();
+    }
+
+    /**
+     * Return the number of results currently cached.
+     * */
+    public int size() {
+        int size = 0;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return this.invalidations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Entries %d Hits %d Misses %d Evictions %d Invalidations %d",
+                size(), getHits(), getMisses(), getEvictions(), getInvalidations());
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * A cached result and the version of the word graph whose IDs it holds.
+     * */
+    private record CachedResult(WordGraph graph, LadderResult result) {}
+
+    /**
+     * One independently locked part of the cache, kept in access order so the eldest entry is the least recently used.
+     * */
+    private class Segment extends LinkedHashMap<Long, CachedResult> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedResult> eldest) {
+            if (size() > this.capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Return the same key for a query and its reverse.
+     * */
+    private static long key(int startId, int endId) {
+        int low = Math.min(startId, endId);
+        int high = Math.max(startId, endId);
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
+    }
+
+    private Segment segment(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return this.segments[(int) ((hash >>> 32) % this.segments.length)];
+    }
+
+    /**
+     * Return true if the cached result starts at the given word.
+     * Results without a ladder read the same both ways.
+     * */
+    private static boolean isForward(LadderResult result, int startId) {
+        return !result.isFound() || result.getStartId() == startId;
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * A dictionary that words can be added to and removed from while queries are running.
+ * Every change publishes a new version of the word graph, built from the current one by touching only the changed
+ * word and its neighbors. A query takes the current version when it starts and keeps it to the end, so it never sees
+ * half a change, and changes never wait for queries.
+ * Changes are laid over the arrays of the graph they started from, which makes each one a little slower than the last,
+ * so once enough of them pile up the graph is built again with all of them folded in.
+ * */
+public class LadderDictionary {
+
+    /**
+     * The number of changes after which the graph is built again.
+     * */
+    public static final int DEFAULT_COMPACT_THRESHOLD = 4096;
+
+    /**
+     * Open the dictionary stored in a .txt file, using its word graph snapshot if there is a valid one.
+     * */
+    public static LadderDictionary open(String dictionaryFile) {
+        return new LadderDictionary(WordGraph.open(dictionaryFile));
+    }
+
+    /**
+     * Constructor.
+     * Start from a word graph that was already loaded.
+     * */
+    public LadderDictionary(WordGraph graph) {
+        this(graph, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Constructor.
+     * Build the graph again after the given number of changes.
+     * */
+    public LadderDictionary(WordGraph graph, int compactThreshold) {
+        if (compactThreshold < 1) {
+            throw new IllegalArgumentException("The graph can only be rebuilt after at least one change.");
+        }
+        this.current = graph;
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Return the current version of the word graph. It never changes, so a query can keep using it.
+     * */
+    public WordGraph current() {
+        return this.current;
+    }
+
+    /**
+     * Add a word. Return true if it was added, or false if it was already in the dictionary.
+     * */
+    public synchronized boolean addWord(String word) {
+        WordGraph next = this.current.withWord(normalize(word));
+        return publish(next);
+    }
+
+    /**
+     * Remove a word. Return true if it was removed, or false if it was not in the dictionary.
+     * */
+    public synchronized boolean removeWord(String word) {
+        WordGraph next = this.current.withoutWord(normalize(word));
+        return publish(next);
+    }
+
+    /**
+     * Build the graph again with every change folded in.
+     * Queries keep running on the old version while this happens.
+     * */
+    public synchronized void compact() {
+        this.current = this.current.compact();
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final int compactThreshold;
+    private volatile WordGraph current;
+
+    private static String normalize(String word) {
+        word = word.strip().toLowerCase();
+        if (word.isEmpty()) {
+            throw new IllegalArgumentException("Words must have at least one letter.");
+        }
+        return word;
+    }
+
+    private boolean publish(WordGraph next) {
+        if (next == this.current) {
+            return false;
+        }
+        this.current = next.changeCount() >= this.compactThreshold ? next.compact() : next;
+        return true;
+    }
+
+}
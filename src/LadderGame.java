@@ -1,6 +1,5 @@
-import java.io.File;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
 
 public abstract class LadderGame {
 
@@ -8,28 +7,163 @@ public abstract class LadderGame {
 
     /**
      * Constructor.
-     * Read dictionary stored in .txt file and store in the class.
-     * Create a copy of the dictionary to be used in the ladder game algorithm.
-     * Reset the totalEnqueues counter.
+     * Load the word graph for the dictionary stored in .txt file, building its snapshot on first use.
      * */
     LadderGame(String dictionaryFile) {
-        readDictionary(dictionaryFile);
-        reset();
+        this(LadderDictionary.open(dictionaryFile));
     }
 
-    public abstract void play(String start, String end);
+    /**
+     * Constructor.
+     * Play on a word graph that was already loaded, so several games can share it.
+     * A game keeps no state between queries, so one instance can serve any number of threads at once.
+     * */
+    LadderGame(WordGraph graph) {
+        this(new LadderDictionary(graph));
+    }
+
+    /**
+     * Constructor.
+     * Play on a dictionary that may change while the game runs. Every query uses the version that was current
+     * when it started.
+     * */
+    LadderGame(LadderDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Attempt to find the shortest word ladder from start to end and print it.
+     * This is a thin console adapter over solve.
+     * */
+    public void play(String start, String end) throws IllegalArgumentException {
+
+        start = start.toLowerCase();
+        end = end.toLowerCase();
+        validateInput(start, end);
+
+        System.out.println("Seeking " + getName() + " solution from " + start + " -> " + end);
+        System.out.println(format(solve(start, end)));
+
+    }
+
+    /**
+     * Attempt to find the shortest word ladder from start to end.
+     * Invalid input is reported in the result instead of being thrown.
+     * Every call gets its own search state, so this may be called from many threads at once.
+     * */
+    public LadderResult solve(String start, String end) {
+        return solve(start, end, SearchBudget.unlimited());
+    }
+
+    /**
+     * Attempt to find the shortest word ladder from start to end within the given budget.
+     * A query that runs out of budget, or is cancelled, stops and returns the ladder to the closest word it reached.
+     * */
+    public LadderResult solve(String start, String end, SearchBudget budget) {
+
+        start = start.toLowerCase();
+        end = end.toLowerCase();
+        SearchState state = reset(budget);
+        String error = checkInput(state.graph, start, end);
+        if (error != null) {
+            return LadderResult.invalidInput(error);
+        }
+
+        return solve(state.graph.id(start), state.graph.id(end), state);
+
+    }
+
+    /**
+     * Attempt to find the shortest word ladder between two words given by their IDs,
+     * which must have the same length unless edit moves are used.
+     * */
+    public LadderResult solve(int startId, int endId) {
+        return solve(startId, endId, reset());
+    }
+
+    /**
+     * Attempt to find the shortest word ladder between two words given by their IDs, within the given budget.
+     * */
+    public LadderResult solve(int startId, int endId, SearchBudget budget) {
+        return solve(startId, endId, reset(budget));
+    }
+
+    /**
+     * Return the name of the algorithm, as it appears in the output of play.
+     * */
+    public abstract String getName();
+
+    /**
+     * Return the dictionary the game plays on, which words can be added to and removed from.
+     * */
+    public LadderDictionary getDictionary() {
+        return this.dictionary;
+    }
+
+    /**
+     * Return the line that play prints for a result.
+     * */
+    public String format(LadderResult result) {
+        switch (result.getStatus()) {
+            case FOUND:
+                return " [" + ladderToString(result) + "] total enqueues " + result.getTotalEnqueues();
+            case NOT_FOUND:
+                return " No ladder was found.";
+            case BUDGET_EXCEEDED:
+            case CANCELLED:
+                return " " + result.getMessage() + " Closest so far [" + ladderToString(result) + "]";
+            default:
+                return " " + result.getMessage();
+        }
+    }
+
+    /**
+     * Answer queries for the word lengths covered by the given tables with a lookup instead of a search.
+     * Pass null to search for every word length again.
+     * */
+    public void useDistanceTable(DistanceTable table) {
+        this.distanceTable = table;
+    }
+
+    /**
+     * Answer repeated queries from the given cache. Pass null to stop caching.
+     * */
+    public void useCache(LadderCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Add the statistics of every query to the given registry, under the name of the game. Pass null to stop.
+     * */
+    public void useMetrics(SearchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Also allow moves that insert or delete one letter, so words of different lengths can be joined.
+     * The words such a move away are found through the graph's edit index, which is built here the first time.
+     * The distance tables, the cache and the components only know about substitutions, so queries with edit moves
+     * always search.
+     * */
+    public void useEditMoves(boolean editMoves) {
+        if (editMoves) {
+            this.dictionary.current().edits();
+        }
+        this.editMoves = editMoves;
+    }
 
     /**
      * Display a list containing the specified number of words of a given length.
      * */
     public void listWords(int length, int howMany) {
 
+        WordGraph graph = this.dictionary.current();
         int count = 0;
-        for (String word: this.getWordsOfLength(length)) {
-            System.out.println(word);
-            count++;
-            if (count >= howMany) {
-                break;
+        for (int slot = 0; slot < graph.slotCount(length) && count < howMany; slot++) {
+            int id = graph.idAtSlot(length, slot);
+            if (graph.contains(id)) {
+                System.out.println(graph.word(id));
+                count++;
             }
         }
 
@@ -37,45 +171,255 @@ public abstract class LadderGame {
 
     // PROTECTED MEMBERS -----------------------------------------------------------------------------------------------
 
-    protected int totalEnqueues;
+    /**
+     * The state of a single query.
+     * It is only ever touched by the thread running the query, so games can run many queries at once.
+     * */
+    protected static class SearchState {
+        public int totalEnqueues;
+        public int nodesExpanded;
+        public int oneAwayCalls;
+        public int peakFrontier;
+        public final long startNanos = System.nanoTime();
+
+        /**
+         * The version of the word graph the query runs on, from start to end.
+         * */
+        public final WordGraph graph;
+
+        /**
+         * True if the query may also insert or delete a letter.
+         * */
+        public final boolean editMoves;
+
+        /**
+         * The limits of the query, which its search checks with outOfBudget as it runs.
+         * */
+        public final SearchBudget budget;
+        private final long deadline;
+
+        /**
+         * Words removed from this query's view of the dictionary, created the first time a word is removed.
+         * */
+        private boolean[] removed;
+
+        /**
+         * The words found by the last call to collectOneAway.
+         * */
+        public int[] oneAway = new int[16];
+
+        /**
+         * The Flight Recorder event of the query, begun when the state is created.
+         * */
+        private final SearchEvent event = new SearchEvent();
+
+        public SearchState(WordGraph graph) {
+            this(graph, false, SearchBudget.unlimited());
+        }
+
+        public SearchState(WordGraph graph, boolean editMoves, SearchBudget budget) {
+            this.graph = graph;
+            this.editMoves = editMoves;
+            this.budget = budget;
+            this.deadline = this.startNanos + budget.getTimeoutNanos();
+            this.event.begin();
+        }
+
+        /**
+         * Return true if the query was cancelled or has used up its budget, and should stop.
+         * Searches call this once for every word they expand.
+         * */
+        public boolean outOfBudget() {
+            return this.nodesExpanded >= this.budget.getMaxExpanded()
+                    || this.totalEnqueues >= this.budget.getMaxEnqueues()
+                    || this.budget.isCancelled()
+                    || (this.budget.getTimeoutNanos() > 0 && System.nanoTime() - this.deadline >= 0);
+        }
+
+        /**
+         * Note how many words are waiting to be expanded, to track the most the query ever held at once.
+         * */
+        public void frontier(int size) {
+            if (size > this.peakFrontier) {
+                this.peakFrontier = size;
+            }
+        }
+    }
 
     /**
-     * Return a list of words that are one character off from the given word.
-     * If specified, also remove the words from the dictionary.
+     * Attempt to find the shortest word ladder between two different words of the same length.
      * */
-    protected ArrayList<String> oneAway(String word, boolean withRemoval) {
-        ArrayList<String> words = new ArrayList<>();
+    protected abstract LadderResult search(int startId, int endId, SearchState state);
 
-        ArrayList<String> wordsOfSameLength = this.getWordsOfLength(word.length());
+    /**
+     * Attempt to find the shortest word ladder between two words, on the graph of the given query,
+     * and report the query's statistics.
+     * */
+    protected LadderResult solve(int startId, int endId, SearchState state) {
+        LadderResult result = answer(startId, endId, state);
+        finish(startId, endId, state, result);
+        return result;
+    }
 
-        // Find all words that have only one letter difference
-        for (String w : wordsOfSameLength) {
-            if (diff(word, w) == 1) {
-                words.add(w);
+    /**
+     * Return true if the query looks for the ladder with the fewest letter substitutions, which is the only kind of
+     * ladder the distance tables and the cache hold. Games that look for some other ladder must not use them.
+     * */
+    protected boolean fewestMoves(SearchState state) {
+        return !state.editMoves;
+    }
+
+    /**
+     * Return the result of a search that found the given ladder.
+     * */
+    protected LadderResult found(int[] ladder, SearchState state) {
+        return LadderResult.found(state.graph, ladder, state.totalEnqueues, state.nodesExpanded, System.nanoTime() - state.startNanos);
+    }
+
+    /**
+     * Return the result of a search that did not reach the end word.
+     * */
+    protected LadderResult notFound(SearchState state) {
+        return LadderResult.notFound(state.graph, state.totalEnqueues, state.nodesExpanded, System.nanoTime() - state.startNanos);
+    }
+
+    /**
+     * Return the result of a search that ran out of budget or was cancelled, given the ladder from the start word
+     * to the closest word it reached.
+     * */
+    protected LadderResult stopped(int[] partialLadder, SearchState state) {
+        long elapsedNanos = System.nanoTime() - state.startNanos;
+        SearchBudget budget = state.budget;
+        LadderResult.Status status = LadderResult.Status.BUDGET_EXCEEDED;
+        String message;
+        if (budget.isCancelled()) {
+            status = LadderResult.Status.CANCELLED;
+            message = "The search was cancelled.";
+        }
+        else if (state.nodesExpanded >= budget.getMaxExpanded()) {
+            message = "The search expanded its limit of " + budget.getMaxExpanded() + " words.";
+        }
+        else if (state.totalEnqueues >= budget.getMaxEnqueues()) {
+            message = "The search queued its limit of " + budget.getMaxEnqueues() + " words.";
+        }
+        else {
+            long timeout = budget.getTimeoutNanos();
+            message = "The search ran out of its " + (timeout >= 1_000_000 ? timeout / 1_000_000 + " ms." : timeout + " ns.");
+        }
+        return LadderResult.stopped(status, state.graph, partialLadder, state.totalEnqueues, state.nodesExpanded,
+                elapsedNanos, message);
+    }
+
+    /**
+     * Return how far a word looks from the end word, used to pick the closest word a stopped search reached:
+     * the letters that differ, lining the words up from the start, plus one for each letter one has more.
+     * */
+    protected static int lettersOff(WordGraph graph, int word, int end) {
+        int wordLength = graph.length(word);
+        int endLength = graph.length(end);
+        if (wordLength == endLength) {
+            return graph.diff(word, end);
+        }
+        int count = Math.abs(wordLength - endLength);
+        for (int i = 0; i < Math.min(wordLength, endLength); i++) {
+            if (graph.charAt(word, i) != graph.charAt(end, i)) {
+                count++;
             }
         }
+        return count;
+    }
+
+    /**
+     * Return the word of the given length, among those a search reached, with the fewest letters off the end word.
+     * A search that reached any word reached the start word, so there is always one.
+     * */
+    protected static int closestReached(WordGraph graph, int length, int endId, IntPredicate reachedSlot) {
+        int closest = -1;
+        int closestOff = Integer.MAX_VALUE;
+        for (int slot = 0; slot < graph.slotCount(length); slot++) {
+            if (reachedSlot.test(slot)) {
+                int word = graph.idAtSlot(length, slot);
+                int off = graph.diff(word, endId);
+                if (off < closestOff) {
+                    closest = word;
+                    closestOff = off;
+                }
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Return the IDs of the words that are one character off from the given word,
+     * followed by the words one inserted or deleted letter away if the query uses edit moves.
+     * If specified, skip words that were already removed from the query's dictionary and remove the returned words.
+     * */
+    protected int[] oneAway(int word, boolean withRemoval, SearchState state) {
+        int count = collectOneAway(word, withRemoval, state);
+        return Arrays.copyOf(state.oneAway, count);
+    }
+
+    /**
+     * Put the words oneAway returns into the query's oneAway buffer and return how many there are.
+     * The buffer is reused for every call, so once it has grown this allocates nothing unless the query uses edit
+     * moves. Its contents are only good until the next call.
+     * */
+    protected int collectOneAway(int word, boolean withRemoval, SearchState state) {
+        WordGraph graph = state.graph;
+        state.oneAwayCalls++;
+        int start = graph.neighborStart(word);
+        int degree = graph.degree(word);
+        int[] edits = state.editMoves ? graph.edits().neighbors(graph, word) : NO_WORDS;
+        int total = degree + edits.length;
+        if (total > state.oneAway.length) {
+            state.oneAway = new int[Math.max(total, state.oneAway.length * 2)];
+        }
+        int[] words = state.oneAway;
+        int count = 0;
 
-        // Remove them from the dictionary if specified
-        if (withRemoval) {
-            wordsOfSameLength.removeAll(words);
+        for (int i = 0; i < total; i++) {
+            int w = i < degree ? graph.neighbor(start + i) : edits[i - degree];
+
+            // Only hand out words that are still in the dictionary, then remove them
+            if (withRemoval) {
+                if (state.removed == null) {
+                    state.removed = new boolean[graph.size()];
+                }
+                if (state.removed[w]) {
+                    continue;
+                }
+                state.removed[w] = true;
+            }
+            words[count++] = w;
         }
 
-        return words;
+        return count;
     }
 
     /**
-     * Reset the copy of the dictionary so the ladder game algorithm can start with a fresh dictionary.
+     * Start a query with a fresh dictionary and the totalEnqueues counter at zero.
      * */
-    protected void reset() {
-        resetDictionaryCopy();
-        totalEnqueues = 0;
+    protected SearchState reset() {
+        return reset(SearchBudget.unlimited());
     }
 
     /**
-     * Get a list of all words of a given length.
+     * Start a query with a fresh dictionary that must stay within the given budget.
      * */
-    protected ArrayList<String> getWordsOfLength(int length) {
-        return this.dictionaryCopy.get(length);
+    protected SearchState reset(SearchBudget budget) {
+        SearchMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.recordStart(getName());
+        }
+        return newSearchState(budget);
+    }
+
+    /**
+     * Create a query's search state without counting a start in the metrics.
+     * Queries that do not end in a LadderResult never record a finish, so they must not record a start either.
+     * */
+    protected SearchState newSearchState(SearchBudget budget) {
+        return new SearchState(this.dictionary.current(), this.editMoves, budget);
     }
 
     /**
@@ -95,78 +439,157 @@ public abstract class LadderGame {
 
     /**
      * Assumes start and end are lowercase.
-     * Ensure start and end words are the same length and in the dictionary.
+     * Ensure start and end words are in the dictionary, and the same length unless edit moves are used.
      * */
     protected void validateInput(String start, String end) throws IllegalArgumentException {
+        String error = checkInput(this.dictionary.current(), start, end);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    /**
+     * Assumes start and end are lowercase.
+     * Return why start and end cannot be played on the given graph, or null if they can.
+     * */
+    protected String checkInput(WordGraph graph, String start, String end) {
 
-        // Ensure start and end words are the same length
-        if (start.length() != end.length()) {
-            throw new IllegalArgumentException("Start and end words must have the same length.");
+        // Ensure start and end words are the same length, unless letters can be inserted and deleted
+        if (start.length() != end.length() && !this.editMoves) {
+            return "Start and end words must have the same length.";
         }
 
         // Ensure start and end words are in the dictionary
-        ArrayList<String> wordsOfSameLength = this.getWordsOfLength(start.length());
-        if (!wordsOfSameLength.contains(start) || !wordsOfSameLength.contains(end)) {
-            throw new IllegalArgumentException("Start and end words must be in the dictionary.");
+        if (graph.id(start) < 0 || graph.id(end) < 0) {
+            return "Start and end words must be in the dictionary.";
+        }
+
+        return null;
+    }
+
+    /**
+     * Follow parent links from the last word back to the start and return the ladder from the start word.
+     * Parents are indexed by slot and the start word's parent is -1.
+     * */
+    protected static int[] ladderFromParents(WordGraph graph, int last, int[] parent) {
+        int length = 0;
+        for (int w = last; w >= 0; w = parent[graph.slot(w)]) {
+            length++;
+        }
+
+        int[] ladder = new int[length];
+        for (int w = last; w >= 0; w = parent[graph.slot(w)]) {
+            ladder[--length] = w;
+        }
+        return ladder;
+    }
+
+    /**
+     * Follow parent links from the last word back to the start and return the ladder from the start word.
+     * Parents are indexed by word ID and the start word's parent is -1.
+     * */
+    protected static int[] ladderFromParents(int last, int[] parent) {
+        int length = 0;
+        for (int w = last; w >= 0; w = parent[w]) {
+            length++;
+        }
+
+        int[] ladder = new int[length];
+        for (int w = last; w >= 0; w = parent[w]) {
+            ladder[--length] = w;
         }
+        return ladder;
+    }
+
+    /**
+     * Join the words of a result's ladder the way the ladder is printed.
+     * */
+    protected String ladderToString(LadderResult result) {
+        return String.join(" ", result.getWords());
     }
 
     // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
 
-    private ArrayList<ArrayList<String>> dictionary;
-    private ArrayList<ArrayList<String>> dictionaryCopy;
+    private final LadderDictionary dictionary;
+    private volatile DistanceTable distanceTable;
+    private volatile LadderCache cache;
+    private volatile SearchMetrics metrics;
+    private volatile boolean editMoves;
+
+    private static final int[] NO_WORDS = new int[0];
 
     /**
-     * Read a list of words from a file and put all words of the same length into the same array.
+     * Answer a query from the cache or the distance tables if possible, and search otherwise.
      * */
-    private void readDictionary(String dictionaryFile) {
-        File file = new File(dictionaryFile);
-        ArrayList<String> allWords = new ArrayList<>();
+    private LadderResult answer(int startId, int endId, SearchState state) {
 
-        //
-        // Track the longest word, because that tells us how big to make the array.
-        int longestWord = 0;
-        try (Scanner input = new Scanner(file)) {
-            //
-            // Start by reading all the words into memory.
-            while (input.hasNextLine()) {
-                String word = input.nextLine().toLowerCase();
-                allWords.add(word);
-                longestWord = Math.max(longestWord, word.length());
-            }
+        WordGraph graph = state.graph;
 
-            // For every word length from 1 to longestWord, initialize an empty ArrayList
-            this.dictionary = new ArrayList<>();
-            for (int i = 0; i <= longestWord; i++) {
-                this.dictionary.add(new ArrayList<>());
-            }
+        // Special case: Start and end are the same. No need to run algorithm.
+        // The ladder lists the word twice, once as the start and once as the end.
+        if (startId == endId) {
+            return LadderResult.found(graph, new int[] { startId, endId }, 0, 0, System.nanoTime() - state.startNanos);
+        }
+
+        // Words in different components can never be joined by substitutions, so there is nothing to search
+        if (!state.editMoves && !graph.components().connected(startId, endId)) {
+            return notFound(state);
+        }
 
-            // Next, loop through allWords and add each word to its proper place in this.dictionary
-            // The index into this.dictionary corresponds to word length - 1.
-            for (String word : allWords) {
-                this.dictionary.get(word.length()).add(word);
+        // Repeated queries, in either direction, are answered from the cache
+        LadderCache cache = fewestMoves(state) ? this.cache : null;
+        if (cache != null) {
+            LadderResult cached = cache.get(graph, startId, endId);
+            if (cached != null) {
+                return cached;
             }
+        }
+
+        LadderResult result;
 
+        // Short words can be answered from the distance tables without searching
+        DistanceTable table = fewestMoves(state) ? this.distanceTable : null;
+        if (table != null && table.covers(graph, graph.length(startId))) {
+            int[] ladder = table.ladder(startId, endId);
+            result = ladder == null ? notFound(state) : found(ladder, state);
         }
-        catch (java.io.IOException ex) {
-            System.out.println("An error occurred trying to read the dictionary: " + ex);
+        else {
+            result = search(startId, endId, state);
         }
+
+        if (cache != null) {
+            cache.put(graph, startId, endId, result);
+        }
+        return result;
+
     }
 
     /**
-     * Create a deep copy of the dictionary to be searched through and modified by the word ladder algorithm.
+     * Add a finished query to the metrics, and commit its Flight Recorder event if a recording wants it.
+     * Only the work this query did is counted, so a query answered from the cache counts none.
      * */
-    private void resetDictionaryCopy() {
-        this.dictionaryCopy = new ArrayList<>();
+    private void finish(int startId, int endId, SearchState state, LadderResult result) {
+        long elapsedNanos = System.nanoTime() - state.startNanos;
 
-        for (ArrayList<String> a: this.dictionary) {
-            this.dictionaryCopy.add(new ArrayList<>(a));
+        SearchMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.record(getName(), result.getStatus(), state.nodesExpanded, state.totalEnqueues, state.oneAwayCalls,
+                    state.peakFrontier, elapsedNanos);
         }
 
-        // Do some checking to make sure we did the deep copy right
-        assert this.dictionary.size() == this.dictionaryCopy.size();
-        for (int i = 0; i < this.dictionary.size(); i++) {
-            assert this.dictionary.get(i).size() == this.dictionaryCopy.get(i).size();
+        SearchEvent event = state.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.startWord = state.graph.word(startId);
+            event.endWord = state.graph.word(endId);
+            event.algorithm = getName();
+            event.status = result.getStatus().name();
+            event.ladderLength = result.getLength();
+            event.nodesExpanded = state.nodesExpanded;
+            event.totalEnqueues = state.totalEnqueues;
+            event.peakFrontier = state.peakFrontier;
+            event.oneAwayCalls = state.oneAwayCalls;
+            event.commit();
         }
     }
 
@@ -1,60 +1,738 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
 
 public class LadderGameExhaustive extends LadderGame {
 
+    /**
+     * How the search explores the dictionary.
+     * */
+    public enum Mode {
+        SEQUENTIAL,     // One breadth-first search from the start word, on the calling thread
+        BIDIRECTIONAL,  // Breadth-first searches from the start and the end word that meet in the middle
+        PARALLEL        // One breadth-first search whose levels are split among the workers of a fork/join pool
+    }
+
     public LadderGameExhaustive(String dictionaryFile) {
         super(dictionaryFile);
+        this.mode = Mode.SEQUENTIAL;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    public LadderGameExhaustive(WordGraph graph) {
+        this(graph, Mode.SEQUENTIAL);
+    }
+
+    /**
+     * Constructor.
+     * If bidirectional is set, search from both the start and the end word until the two searches meet.
+     * */
+    public LadderGameExhaustive(WordGraph graph, boolean bidirectional) {
+        this(graph, bidirectional ? Mode.BIDIRECTIONAL : Mode.SEQUENTIAL);
+    }
+
+    /**
+     * Constructor.
+     * Search in the given mode. The parallel mode runs on the common fork/join pool.
+     * */
+    public LadderGameExhaustive(WordGraph graph, Mode mode) {
+        this(new LadderDictionary(graph), mode, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor.
+     * Play on a dictionary that may change while the game runs.
+     * */
+    public LadderGameExhaustive(LadderDictionary dictionary, boolean bidirectional) {
+        this(dictionary, bidirectional ? Mode.BIDIRECTIONAL : Mode.SEQUENTIAL, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor.
+     * Play on a dictionary that may change while the game runs, in the given mode.
+     * The parallel mode splits each level of the search among the workers of the given pool.
+     * */
+    public LadderGameExhaustive(LadderDictionary dictionary, Mode mode, ForkJoinPool pool) {
+        super(dictionary);
+        this.mode = mode;
+        this.pool = pool;
+    }
+
+    @Override
+    public String getName() {
+        switch (mode) {
+            case BIDIRECTIONAL:
+                return "bidirectional";
+            case PARALLEL:
+                return "parallel";
+            default:
+                return "exhaustive";
+        }
     }
 
     /**
      * Attempt to find the shortest word ladder from start to end using an exhaustive search.
      * */
     @Override
-    public void play(String start, String end) throws IllegalArgumentException {
+    protected LadderResult search(int startId, int endId, SearchState state) {
 
-        start = start.toLowerCase();
-        end = end.toLowerCase();
-        reset();
-        validateInput(start, end);
+        // The other modes index their arrays by slot, which only numbers the words of one length,
+        // so a query that can change the length of a word always runs the sequential search
+        if (mode == Mode.BIDIRECTIONAL && !state.editMoves) {
+            return searchBidirectional(startId, endId, state);
+        }
+        if (mode == Mode.PARALLEL && !state.editMoves) {
+            return searchParallel(startId, endId, state);
+        }
 
-        System.out.println("Seeking exhaustive solution from " + start + " -> " + end);
+        // Each word reached keeps the word it was reached from, which also marks it as reached, so the queue only
+        // holds word IDs and a ladder is read off the parents once the end word is found.
+        // Without edit moves every word on the ladder has the start word's length, so the parents are indexed by slot.
+        WordGraph graph = state.graph;
+        boolean byId = state.editMoves;
+        int length = graph.length(startId);
+        int[] parent = new int[byId ? graph.size() : graph.slotCount(length)];
+        Arrays.fill(parent, -1);
 
-        // Special case: Start and end are the same. No need to run algorithm.
-        if (start.equals(end)) {
-            System.out.println(" [" + start + " " + end + "] total enqueues 0");
-            return;
-        }
+        // The slot of a word the graph was built with is its offset from the first word of its length,
+        // which saves looking its length up on every neighbor
+        int first = graph.firstIdOfLength(length);
+        int builtEnd = graph.endIdOfLength(length);
 
-        // Create an initial ladder consisting of the start word and add it to the partial solution queue
-        var solutionQueue = new Queue<WordInfo>();
-        solutionQueue.enqueue(new WordInfo(start, 0));
-        totalEnqueues++;
+        var frontier = new IntQueue();
+        frontier.enqueue(startId);
+        state.totalEnqueues++;
+        state.frontier(1);
+        int closest = startId;
+        int closestOff = Integer.MAX_VALUE;
+        boolean startRequeued = false;
 
         // While queue is not empty and word ladder not complete
-        while (!solutionQueue.isEmpty()) {
+        while (!frontier.isEmpty()) {
+
+            // Give up with the ladder to the closest word so far if the query is out of budget
+            if (state.outOfBudget()) {
+                return stopped(byId ? ladderFromParents(closest, parent) : ladderFromParents(graph, closest, parent), state);
+            }
+
+            // Remove the first word from the queue, which ends one of the current shortest partial ladders
+            int current = frontier.dequeue();
+            state.nodesExpanded++;
+            int off = lettersOff(graph, current, endId);
+            if (off < closestOff) {
+                closest = current;
+                closestOff = off;
+            }
+
+            // For each word not reached yet that is one away from the current word
+            int count = collectOneAway(current, false, state);
+            for (int i = 0; i < count; i++) {
+                int w = state.oneAway[i];
+                int local = byId ? w : w >= first && w < builtEnd ? w - first : graph.slot(w);
+                if (parent[local] >= 0) {
+                    continue;
+                }
 
-            // Remove the first item from the queue (this is the current shortest partial ladder)
-            WordInfo currentShortest = solutionQueue.dequeue();
+                // The start word has no parent, so it is not marked as reached and is queued once more the first time
+                // it is met again. Expanding it again reaches nothing new, but keeps the counts this search has always
+                // reported.
+                if (w == startId) {
+                    if (!startRequeued) {
+                        startRequeued = true;
+                        frontier.enqueue(w);
+                        state.totalEnqueues++;
+                        state.frontier(frontier.size());
+                    }
+                    continue;
+                }
+                parent[local] = current;
 
-            // For each unused word in the dictionary (of the same length of the last word in the ladder) that is one away (has one letter different) from the last word in the partial ladder
-            ArrayList<String> oneAwayWords = this.oneAway(currentShortest.getWord(), true);
-            for (String w: oneAwayWords) {
                 // If the word is equal to the end word, then the word ladder is complete
-                if (w.equals(end)) {
-                    System.out.println(" [" + currentShortest.getHistory() + " " + w + "] total enqueues " + totalEnqueues);
-                    return;
+                if (w == endId) {
+                    return found(byId ? ladderFromParents(w, parent) : ladderFromParents(graph, w, parent), state);
                 }
 
-                // otherwise, extend the current ladder by appending the new word to a new WordInfo instance and add this new ladder to the queue
+                // otherwise, queue the word to extend the ladder from it later
                 else {
-                    solutionQueue.enqueue(new WordInfo(w, currentShortest.getMoves() + 1, currentShortest.getHistory() + " " + w));
-                    totalEnqueues++;
+                    frontier.enqueue(w);
+                    state.totalEnqueues++;
+                    state.frontier(frontier.size());
+                }
+
+            }
+        }
+        return notFound(state);
+
+    }
+
+    /**
+     * Find every shortest word ladder from start to end.
+     * The ladders are streamed from the result, so there may be any number of them.
+     * The query has no LadderResult, so it is not counted in the metrics.
+     * Only ladders of substitutions are enumerated, so a game that uses edit moves throws IllegalStateException.
+     * */
+    public ShortestLadders allShortest(String start, String end) throws IllegalArgumentException {
+        start = start.toLowerCase();
+        end = end.toLowerCase();
+        SearchState state = newSearchState(SearchBudget.unlimited());
+        String error = checkInput(state.graph, start, end);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        return allShortest(state.graph.id(start), state.graph.id(end), state);
+    }
+
+    /**
+     * Find every shortest word ladder between two words given by their IDs, which must have the same length.
+     * */
+    public ShortestLadders allShortest(int startId, int endId) {
+        return allShortest(startId, endId, newSearchState(SearchBudget.unlimited()));
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final Mode mode;
+    private final ForkJoinPool pool;
+
+    // A parallel search switches to bottom-up once the frontier has more than 1/ALPHA of the edges not yet explored,
+    // and back to top-down once the frontier holds fewer than 1/BETA of the words
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    // Levels smaller than this many words are not split among workers
+    private static final int MIN_CHUNK = 512;
+
+    /**
+     * Attempt to find the shortest word ladder from start to end by growing a breadth-first frontier from each word.
+     * The smaller frontier is always expanded by one whole level, so the searches meet in the middle
+     * and only explore about the square root of what a one-sided search explores.
+     * */
+    private LadderResult searchBidirectional(int startId, int endId, SearchState state) {
+
+        // Only words of the same length can be on the ladder, so index the search arrays by slot
+        WordGraph graph = state.graph;
+        int count = graph.slotCount(graph.length(startId));
+
+        // The parent of a word is the word it was reached from, in the direction of the search's own root
+        int[] forwardParent = new int[count];
+        int[] backwardParent = new int[count];
+        int[] forwardDepth = new int[count];
+        int[] backwardDepth = new int[count];
+        Arrays.fill(forwardDepth, -1);
+        Arrays.fill(backwardDepth, -1);
+
+        int[] forwardFrontier = { startId };
+        int[] backwardFrontier = { endId };
+        int forwardSize = 1;
+        int backwardSize = 1;
+        forwardParent[graph.slot(startId)] = -1;
+        forwardDepth[graph.slot(startId)] = 0;
+        backwardParent[graph.slot(endId)] = -1;
+        backwardDepth[graph.slot(endId)] = 0;
+        state.totalEnqueues += 2;
+
+        while (forwardSize > 0 && backwardSize > 0) {
+            state.frontier(forwardSize + backwardSize);
+
+            // Expand the smaller frontier by one level
+            boolean forward = forwardSize <= backwardSize;
+            int[] frontier = forward ? forwardFrontier : backwardFrontier;
+            int frontierSize = forward ? forwardSize : backwardSize;
+            int[] parent = forward ? forwardParent : backwardParent;
+            int[] depth = forward ? forwardDepth : backwardDepth;
+            int[] otherDepth = forward ? backwardDepth : forwardDepth;
+
+            // Every meeting found on this level has the same depth on this side,
+            // so the shortest ladder goes through the meeting that is closest to the other root
+            int bestFrom = -1;
+            int bestTo = -1;
+            int[] next = new int[Math.max(frontierSize, 16)];
+            int nextSize = 0;
+
+            for (int i = 0; i < frontierSize; i++) {
+                if (state.outOfBudget()) {
+                    int closest = closestReached(graph, graph.length(startId), endId, slot -> forwardDepth[slot] >= 0);
+                    return stopped(ladderFromParents(graph, closest, forwardParent), state);
+                }
+                int current = frontier[i];
+                int currentDepth = depth[graph.slot(current)];
+                state.nodesExpanded++;
+                int neighbors = collectOneAway(current, false, state);
+                for (int k = 0; k < neighbors; k++) {
+                    int w = state.oneAway[k];
+                    int local = graph.slot(w);
+                    if (otherDepth[local] >= 0) {
+                        if (bestTo < 0 || otherDepth[local] < otherDepth[graph.slot(bestTo)]) {
+                            bestFrom = current;
+                            bestTo = w;
+                        }
+                    }
+                    else if (depth[local] < 0) {
+                        depth[local] = currentDepth + 1;
+                        parent[local] = current;
+                        if (nextSize == next.length) {
+                            next = Arrays.copyOf(next, next.length * 2);
+                        }
+                        next[nextSize++] = w;
+                        state.totalEnqueues++;
+                    }
                 }
+            }
 
+            if (bestTo >= 0) {
+                int meetForward = forward ? bestFrom : bestTo;
+                int meetBackward = forward ? bestTo : bestFrom;
+                return found(joinLadder(graph, meetForward, meetBackward, forwardParent, backwardParent), state);
+            }
+
+            if (forward) {
+                forwardFrontier = next;
+                forwardSize = nextSize;
+            }
+            else {
+                backwardFrontier = next;
+                backwardSize = nextSize;
             }
         }
-        System.out.println(" No ladder was found.");
+        return notFound(state);
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Join the forward search's path to meetForward with the backward search's path from meetBackward to the end.
+     * */
+    private int[] joinLadder(WordGraph graph, int meetForward, int meetBackward, int[] forwardParent, int[] backwardParent) {
+
+        // The backward search's parents already point toward the end word
+        int[] forwardPath = ladderFromParents(graph, meetForward, forwardParent);
+        int[] backwardPath = ladderFromParents(graph, meetBackward, backwardParent);
+        int[] ladder = Arrays.copyOf(forwardPath, forwardPath.length + backwardPath.length);
+        for (int i = 0; i < backwardPath.length; i++) {
+            ladder[forwardPath.length + i] = backwardPath[backwardPath.length - 1 - i];
+        }
+        return ladder;
+    }
+
+    /**
+     * Build the layers of a breadth-first search from start, then keep the words that lie on a shortest ladder.
+     * The search stops as soon as it reaches the end word, since the layers before it are complete by then.
+     * Walking back from the end word to neighbors one layer closer to the start finds exactly the words on a
+     * shortest ladder, and those neighbors are the predecessors.
+     * */
+    private ShortestLadders allShortest(int startId, int endId, SearchState state) {
+
+        if (state.editMoves) {
+            throw new IllegalStateException("Every shortest ladder can only be found with useEditMoves(false).");
+        }
+        WordGraph graph = state.graph;
+        if (startId == endId) {
+            return new ShortestLadders(graph, 0, new int[] { startId }, new int[] { 0, 0 }, new int[0]);
+        }
+        if (!graph.components().connected(startId, endId)) {
+            return ShortestLadders.none(graph);
+        }
+
+        int count = graph.slotCount(graph.length(startId));
+        int[] depth = new int[count];
+        Arrays.fill(depth, -1);
+        depth[graph.slot(startId)] = 0;
+        state.totalEnqueues++;
+
+        int[] frontier = { startId };
+        int frontierSize = 1;
+        int moves = -1;
+        while (frontierSize > 0 && moves < 0) {
+            state.frontier(frontierSize);
+            int[] next = new int[Math.max(frontierSize, 16)];
+            int nextSize = 0;
+            for (int i = 0; i < frontierSize && moves < 0; i++) {
+                int current = frontier[i];
+                int currentDepth = depth[graph.slot(current)];
+                state.nodesExpanded++;
+                int neighbors = collectOneAway(current, false, state);
+                for (int k = 0; k < neighbors; k++) {
+                    int w = state.oneAway[k];
+                    int local = graph.slot(w);
+                    if (depth[local] < 0) {
+                        depth[local] = currentDepth + 1;
+                        if (w == endId) {
+                            moves = currentDepth + 1;
+                            break;
+                        }
+                        if (nextSize == next.length) {
+                            next = Arrays.copyOf(next, next.length * 2);
+                        }
+                        next[nextSize++] = w;
+                        state.totalEnqueues++;
+                    }
+                }
+            }
+            frontier = next;
+            frontierSize = nextSize;
+        }
+        if (moves < 0) {
+            return ShortestLadders.none(graph);
+        }
+
+        // Number the words on shortest ladders layer by layer from the end word. Reusing depth as the number,
+        // stored as -2 - number, marks a word as numbered so it is only added to its layer once.
+        int[] words = new int[16];
+        int[] layerStart = new int[moves + 2];
+        words[0] = endId;
+        depth[graph.slot(endId)] = -2;
+        int size = 1;
+        for (int layer = moves; layer > 0; layer--) {
+            layerStart[moves - layer + 1] = size;
+            for (int node = layerStart[moves - layer]; node < layerStart[moves - layer + 1]; node++) {
+                int word = words[node];
+                for (int i = graph.neighborStart(word); i < graph.neighborEnd(word); i++) {
+                    int w = graph.neighbor(i);
+                    int local = graph.slot(w);
+                    if (depth[local] == layer - 1) {
+                        if (size == words.length) {
+                            words = Arrays.copyOf(words, size * 2);
+                        }
+                        depth[local] = -2 - size;
+                        words[size++] = w;
+                    }
+                }
+            }
+        }
+        layerStart[moves + 1] = size;
+        words = Arrays.copyOf(words, size);
+
+        // The predecessors of a word are its neighbors in the next layer, which are exactly the numbered
+        // neighbors with a larger number than the word's layer holds
+        int[] predStart = new int[size + 1];
+        int[] preds = new int[16];
+        int edges = 0;
+        for (int layer = 0; layer < moves; layer++) {
+            for (int node = layerStart[layer]; node < layerStart[layer + 1]; node++) {
+                predStart[node] = edges;
+                int word = words[node];
+                for (int i = graph.neighborStart(word); i < graph.neighborEnd(word); i++) {
+                    int number = -2 - depth[graph.slot(graph.neighbor(i))];
+                    if (number >= layerStart[layer + 1] && number < layerStart[layer + 2]) {
+                        if (edges == preds.length) {
+                            preds = Arrays.copyOf(preds, edges * 2);
+                        }
+                        preds[edges++] = number;
+                    }
+                }
+            }
+        }
+        predStart[size - 1] = edges;
+        predStart[size] = edges;
+
+        return new ShortestLadders(graph, moves, words, predStart, Arrays.copyOf(preds, edges));
+
+    }
+
+    /**
+     * One level of a parallel search: the slots of the words it reached, the number of their neighbors,
+     * and the number of words whose neighbors were looked at to reach them.
+     * */
+    private static final class Level {
+        final int[] slots;
+        final long edges;
+        final int expanded;
+
+        Level(int[] slots, long edges, int expanded) {
+            this.slots = slots;
+            this.edges = edges;
+            this.expanded = expanded;
+        }
+    }
+
+    /**
+     * Attempt to find the shortest word ladder from start to end with a breadth-first search whose levels are
+     * expanded by all the workers of the pool.
+     * A level is expanded either top-down, where each frontier word claims its unvisited neighbors, or bottom-up,
+     * where each unvisited word looks for a neighbor in the frontier. Bottom-up wins once the frontier is large,
+     * since most unvisited words then find a frontier neighbor after looking at a few of their own.
+     * Words are claimed in an atomic bitset, so each word joins the next level exactly once. Every worker collects
+     * the words it claimed in its own buffer, and the buffers are joined into the next frontier after each level.
+     * Which worker claims a word depends on timing, so the ladder is rebuilt afterwards to be the one the
+     * sequential search finds.
+     * */
+    private LadderResult searchParallel(int startId, int endId, SearchState state) {
+
+        WordGraph graph = state.graph;
+        int length = graph.length(startId);
+        int count = graph.slotCount(length);
+        int endSlot = graph.slot(endId);
+
+        int[] depth = new int[count];
+        Arrays.fill(depth, -1);
+        AtomicLongArray visited = new AtomicLongArray((count + 63) >>> 6);
+        int[] start = { graph.slot(startId) };
+        depth[start[0]] = 0;
+        claim(visited, start[0]);
+        state.totalEnqueues++;
+
+        long unexploredEdges = graph.degreeSum(length);
+
+        List<int[]> levels = new ArrayList<>();
+        Level frontier = new Level(start, graph.degree(startId), 0);
+        boolean bottomUp = false;
+        while (frontier.slots.length > 0 && depth[endSlot] < 0) {
+
+            // Levels are not split further, so the budget is only checked between them
+            if (state.outOfBudget()) {
+                int closest = closestReached(graph, length, endId, slot -> depth[slot] >= 0);
+                return stopped(sequentialLadder(graph, length, levels, depth, closest), state);
+            }
+            levels.add(frontier.slots);
+            state.frontier(frontier.slots.length);
+
+            unexploredEdges -= frontier.edges;
+            if (!bottomUp && frontier.edges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            }
+            else if (bottomUp && frontier.slots.length < count / BETA) {
+                bottomUp = false;
+            }
+
+            int level = levels.size() - 1;
+            frontier = bottomUp
+                    ? expandBottomUp(graph, length, count, level, depth, visited)
+                    : expandTopDown(graph, length, frontier.slots, level, depth, visited);
+            state.nodesExpanded += frontier.expanded;
+            state.oneAwayCalls += frontier.expanded;
+            state.totalEnqueues += frontier.slots.length;
+        }
+
+        if (depth[endSlot] < 0) {
+            return notFound(state);
+        }
+        return found(sequentialLadder(graph, length, levels, depth, endId), state);
+
+    }
+
+    /**
+     * Expand a level top-down: every frontier word claims its neighbors that no word has claimed yet.
+     * */
+    private Level expandTopDown(WordGraph graph, int length, int[] frontier, int level, int[] depth, AtomicLongArray visited) {
+        int chunks = chunks(frontier.length);
+        int[][] buffers = new int[chunks][];
+        int[] sizes = new int[chunks];
+        long[] edges = new long[chunks];
+
+        forEachChunk(chunks, chunk -> {
+            int[] buffer = new int[16];
+            int size = 0;
+            long degrees = 0;
+            for (int i = chunkStart(frontier.length, chunks, chunk); i < chunkStart(frontier.length, chunks, chunk + 1); i++) {
+                int word = graph.idAtSlot(length, frontier[i]);
+                for (int j = graph.neighborStart(word); j < graph.neighborEnd(word); j++) {
+                    int w = graph.neighbor(j);
+                    int local = graph.slot(w);
+                    if (depth[local] < 0 && claim(visited, local)) {
+                        depth[local] = level + 1;
+                        if (size == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, size * 2);
+                        }
+                        buffer[size++] = local;
+                        degrees += graph.degree(w);
+                    }
+                }
+            }
+            buffers[chunk] = buffer;
+            sizes[chunk] = size;
+            edges[chunk] = degrees;
+        });
+
+        return join(buffers, sizes, edges, frontier.length);
+    }
+
+    /**
+     * Expand a level bottom-up: every unvisited word looks for a neighbor on the frontier, and stops at the first.
+     * Each worker owns a range of words, so it only competes with others for the bitset words at the range's ends.
+     * */
+    private Level expandBottomUp(WordGraph graph, int length, int count, int level, int[] depth, AtomicLongArray visited) {
+        int chunks = chunks(count);
+        int[][] buffers = new int[chunks][];
+        int[] sizes = new int[chunks];
+        long[] edges = new long[chunks];
+        int[] expanded = new int[chunks];
+
+        forEachChunk(chunks, chunk -> {
+            int[] buffer = new int[16];
+            int size = 0;
+            long degrees = 0;
+            int looked = 0;
+            for (int slot = chunkStart(count, chunks, chunk); slot < chunkStart(count, chunks, chunk + 1); slot++) {
+                if ((visited.get(slot >>> 6) & (1L << slot)) != 0) {
+                    continue;
+                }
+                int word = graph.idAtSlot(length, slot);
+                looked++;
+                for (int j = graph.neighborStart(word); j < graph.neighborEnd(word); j++) {
+                    if (depth[graph.slot(graph.neighbor(j))] == level) {
+                        claim(visited, slot);
+                        depth[slot] = level + 1;
+                        if (size == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, size * 2);
+                        }
+                        buffer[size++] = slot;
+                        degrees += graph.degree(word);
+                        break;
+                    }
+                }
+            }
+            buffers[chunk] = buffer;
+            sizes[chunk] = size;
+            edges[chunk] = degrees;
+            expanded[chunk] = looked;
+        });
+
+        int looked = 0;
+        for (int n : expanded) {
+            looked += n;
+        }
+        return join(buffers, sizes, edges, looked);
+    }
+
+    /**
+     * Rebuild the ladder that the sequential search finds.
+     * The sequential search expands each level in the order it reached the words, and a word is reached from the
+     * first word expanded next to it. So a word's place in its level is set by the place of the first word before it
+     * that neighbors it, then by its ID, since neighbors are handed out in ID order; and the ladder follows those
+     * first neighbors back from the end word.
+     * */
+    private int[] sequentialLadder(WordGraph graph, int length, List<int[]> levels, int[] depth, int endId) {
+        int[] rank = new int[depth.length];
+        for (int level = 1; level < levels.size(); level++) {
+            int[] slots = levels.get(level);
+            long[] keys = new long[slots.length];
+            int chunks = chunks(slots.length);
+            int previous = level - 1;
+            forEachChunk(chunks, chunk -> {
+                for (int i = chunkStart(slots.length, chunks, chunk); i < chunkStart(slots.length, chunks, chunk + 1); i++) {
+                    int word = graph.idAtSlot(length, slots[i]);
+                    int first = firstReachedFrom(graph, word, previous, depth, rank);
+                    keys[i] = (long) rank[graph.slot(first)] << 32 | word;
+                }
+            });
+            Arrays.parallelSort(keys);
+            for (int i = 0; i < keys.length; i++) {
+                rank[graph.slot((int) keys[i])] = i;
+            }
+        }
+
+        int moves = depth[graph.slot(endId)];
+        int[] ladder = new int[moves + 1];
+        ladder[moves] = endId;
+        for (int k = moves; k > 0; k--) {
+            ladder[k - 1] = firstReachedFrom(graph, ladder[k], k - 1, depth, rank);
+        }
+        return ladder;
+    }
+
+    /**
+     * Return the neighbor on the given level that the sequential search expands first.
+     * */
+    private static int firstReachedFrom(WordGraph graph, int word, int level, int[] depth, int[] rank) {
+        int first = -1;
+        for (int j = graph.neighborStart(word); j < graph.neighborEnd(word); j++) {
+            int w = graph.neighbor(j);
+            int local = graph.slot(w);
+            if (depth[local] == level && (first < 0 || rank[local] < rank[graph.slot(first)])) {
+                first = w;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Join the workers' buffers into the next frontier.
+     * */
+    private static Level join(int[][] buffers, int[] sizes, long[] edges, int expanded) {
+        int total = 0;
+        long degrees = 0;
+        for (int chunk = 0; chunk < buffers.length; chunk++) {
+            total += sizes[chunk];
+            degrees += edges[chunk];
+        }
+        int[] slots = new int[total];
+        int position = 0;
+        for (int chunk = 0; chunk < buffers.length; chunk++) {
+            System.arraycopy(buffers[chunk], 0, slots, position, sizes[chunk]);
+            position += sizes[chunk];
+        }
+        return new Level(slots, degrees, expanded);
+    }
+
+    /**
+     * Set a word's bit, and return true if this call set it.
+     * */
+    private static boolean claim(AtomicLongArray visited, int slot) {
+        int index = slot >>> 6;
+        long bit = 1L << slot;
+        long bits = visited.get(index);
+        while ((bits & bit) == 0) {
+            long witness = visited.compareAndExchange(index, bits, bits | bit);
+            if (witness == bits) {
+                return true;
+            }
+            bits = witness;
+        }
+        return false;
+    }
+
+    /**
+     * Return how many pieces to split a level of the given size into: a few per worker, but none too small.
+     * */
+    private int chunks(int size) {
+        return Math.max(1, Math.min(size / MIN_CHUNK, this.pool.getParallelism() * 4));
+    }
+
+    private static int chunkStart(int size, int chunks, int chunk) {
+        return (int) ((long) size * chunk / chunks);
+    }
+
+    /**
+     * Run the body for every chunk on the pool, and return once all of them are done.
+     * A single chunk runs on the calling thread.
+     * */
+    private void forEachChunk(int chunks, IntConsumer body) {
+        if (chunks == 1) {
+            body.accept(0);
+        }
+        else {
+            this.pool.invoke(new ChunkAction(body, 0, chunks));
+        }
+    }
+
+    /**
+     * Runs the chunks of a range, splitting it in halves so idle workers can steal the other half.
+     * */
+    private static final class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient IntConsumer body;    // Tasks only ever run in memory, so the body is never serialized
+        private final int from;
+        private final int to;
+
+        ChunkAction(IntConsumer body, int from, int to) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                this.body.accept(this.from);
+            }
+            else {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new ChunkAction(this.body, this.from, middle), new ChunkAction(this.body, middle, this.to));
+            }
+        }
+    }
+
+}
@@ -1,106 +1,138 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 
 public class LadderGamePriority extends LadderGame {
 
     public LadderGamePriority(String dictionaryFile) {
         super(dictionaryFile);
+        this.heuristic = new LetterDiffHeuristic();
+    }
+
+    public LadderGamePriority(WordGraph graph) {
+        this(graph, new LetterDiffHeuristic());
     }
 
     /**
-     * Attempt to find the shortest word ladder from start to end using A*.
+     * Constructor.
+     * Order the search with the given heuristic instead of the letter difference.
      * */
-    @Override
-    public void play(String start, String end) throws IllegalArgumentException {
+    public LadderGamePriority(WordGraph graph, Heuristic heuristic) {
+        super(graph);
+        this.heuristic = heuristic;
+    }
 
-        start = start.toLowerCase();
-        end = end.toLowerCase();
-        reset();
-        validateInput(start, end);
+    /**
+     * Constructor.
+     * Play on a dictionary that may change while the game runs.
+     * */
+    public LadderGamePriority(LadderDictionary dictionary, Heuristic heuristic) {
+        super(dictionary);
+        this.heuristic = heuristic;
+    }
 
-        System.out.println("Seeking A* solution from " + start + " -> " + end);
+    @Override
+    public String getName() {
+        return heuristic instanceof LetterDiffHeuristic ? "A*" : "A* " + heuristic.getName();
+    }
 
-        // Special case: Start and end are the same
-        if (start.equals(end)) {
-            System.out.println(" [" + start + " " + end + "] total enqueues 0");
-            return;
+    /**
+     * A* cannot use edit moves: its estimates count differing letters, which a deletion and an insertion can
+     * fix several of at once, so they would no longer be lower bounds and the ladders found might not be shortest.
+     * */
+    @Override
+    public void useEditMoves(boolean editMoves) {
+        if (editMoves) {
+            throw new IllegalStateException(
+                    "A* only searches ladders of letter substitutions; it cannot use useEditMoves(true).");
         }
+        super.useEditMoves(false);
+    }
 
-        // Keep track of previously used words
-        var previousWords = new AVLTree<PreviousWord>();
+    /**
+     * A* also reports how many words it queued when it finds no ladder.
+     * */
+    @Override
+    public String format(LadderResult result) {
+        if (result.getStatus() == LadderResult.Status.NOT_FOUND) {
+            return " No ladder was found. Total enqueues " + result.getTotalEnqueues();
+        }
+        return super.format(result);
+    }
+
+    /**
+     * Attempt to find the shortest word ladder from start to end using A*.
+     * */
+    @Override
+    protected LadderResult search(int startId, int endId, SearchState state) {
+
+        // Only words of the same length can be on the ladder, so index the search arrays by slot
+        WordGraph graph = state.graph;
+        int length = graph.length(startId);
+        int count = graph.slotCount(length);
+
+        // Fewest number of moves found so far to get to each word, and the word it was reached from
+        int[] moves = new int[count];
+        int[] parent = new int[count];
+        Arrays.fill(moves, Integer.MAX_VALUE);
 
         // Initialize priority queue
-        var priorityQueue = new AVLTree<WordInfoPriority>();
+        var priorityQueue = new IndexedHeap(count);
 
-        // Begin by inserting the initial state into a priority queue (AVL tree)
-        priorityQueue.insert(new WordInfoPriority(start, 0, diff(start, end)));
-        previousWords.insert(new PreviousWord(start, 0));
-        totalEnqueues++;
+        // Begin by inserting the initial state into a priority queue (indexed heap)
+        int startSlot = graph.slot(startId);
+        priorityQueue.insert(startSlot, heuristic.estimate(graph, startId, endId));
+        moves[startSlot] = 0;
+        parent[startSlot] = -1;
+        state.totalEnqueues++;
+        state.frontier(1);
 
         while (!priorityQueue.isEmpty()) {
-            WordInfoPriority currentBest = priorityQueue.deleteMin();
+            if (state.outOfBudget()) {
+                int closest = closestReached(graph, length, endId, slot -> moves[slot] != Integer.MAX_VALUE);
+                return stopped(ladderFromParents(graph, closest, parent), state);
+            }
+            int currentSlot = priorityQueue.deleteMin();
+            int currentBest = graph.idAtSlot(length, currentSlot);
+            state.nodesExpanded++;
 
             // Add to the priority queue all neighboring states; those that can be reached in one more move
-            ArrayList<String> oneAwayWords = oneAway(currentBest.getWord(), false);
-            int currentMoves = currentBest.getMoves() + 1;
-            for (String word: oneAwayWords) {
+            int neighbors = collectOneAway(currentBest, false, state);
+            int currentMoves = moves[currentSlot] + 1;
+            for (int i = 0; i < neighbors; i++) {
+                int word = state.oneAway[i];
 
                 // We found the word
-                if (word.equals(end)) {
-                    System.out.println(" [" + currentBest.getHistory() + " " + word + "] total enqueues " + totalEnqueues);
-                    return;
+                if (word == endId) {
+                    parent[graph.slot(word)] = currentBest;
+                    return found(ladderFromParents(graph, word, parent), state);
                 }
 
-                else {
-
-                    // If the word has already been visited, but we found a shorter path to the word, add it to the queue.
-                    PreviousWord finder = new PreviousWord(word, 0);
-                    if (previousWords.contains(finder)) {
-                        PreviousWord wordFound = previousWords.find(finder);
-                        if (currentMoves < wordFound.moves) {
-                            wordFound.moves = currentMoves;  // Update the fewest number of moves to get to the word.
-                            priorityQueue.insert(new WordInfoPriority(word, currentMoves, diff(word, end), currentBest.getHistory() + " " + word));
-                            totalEnqueues++;
-                        }
+                // If we found a shorter path to the word, queue it or move it up in the queue.
+                // A word is never in the queue twice, so no stale entry is ever expanded.
+                int local = graph.slot(word);
+                if (currentMoves < moves[local]) {
+                    moves[local] = currentMoves;
+                    parent[local] = currentBest;
+                    int priority = currentMoves + heuristic.estimate(graph, word, endId);
+                    if (priorityQueue.contains(local)) {
+                        priorityQueue.decreaseKey(local, priority);
                     }
-                    // If the word hasn't already been visited, add it to the queue.
                     else {
-                        priorityQueue.insert(new WordInfoPriority(word, currentMoves, diff(word, end), currentBest.getHistory() + " " + word));
-                        previousWords.insert(new PreviousWord(word, currentMoves));
-                        totalEnqueues++;
+                        priorityQueue.insert(local, priority);
                     }
-
+                    state.totalEnqueues++;
                 }
 
             }
+            state.frontier(priorityQueue.size());
 
         }
 
-        System.out.println(" No ladder was found. Total enqueues " + totalEnqueues);
+        return notFound(state);
 
     }
 
-    /**
-     * A simple class for storing previous words and their word ladder size.
-     * */
-    private static class PreviousWord implements Comparable<PreviousWord> {
-
-        public String word;
-        public int moves;
-
-        PreviousWord(String word, int moves) {
-            this.word = word;
-            this.moves = moves;
-        }
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
 
-        @Override
-        public int compareTo(PreviousWord other) {
-            return word.compareTo(other.word);
-        }
-
-        @Override
-        public String toString() {
-            return String.format("Word %s Moves %d", word, moves);
-        }
-    }
+    private final Heuristic heuristic;
 
 }
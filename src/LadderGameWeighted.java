@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+/**
+ * Finds the cheapest ladder when each letter change has its own cost, with Dijkstra's algorithm or with A*.
+ * Costs are small ints and the search only ever removes words in order of cost, so the open list is a monotone radix
+ * heap rather than a comparison-based heap.
+ * The A* estimate is the number of letters that still differ times the cheapest change. Each move fixes at most one
+ * letter and costs at least that much, so the estimate never drops by more than a move costs, and the priorities
+ * that come out of the heap never go down.
+ * */
+public class LadderGameWeighted extends LadderGame {
+
+    public LadderGameWeighted(WordGraph graph, EdgeCost costs) {
+        this(graph, costs, true);
+    }
+
+    /**
+     * Constructor.
+     * If astar is set, order the search by the cost so far plus an estimate of the cost left; otherwise run
+     * Dijkstra's algorithm, which explores every word cheaper to reach than the end word.
+     * */
+    public LadderGameWeighted(WordGraph graph, EdgeCost costs, boolean astar) {
+        this(new LadderDictionary(graph), costs, astar);
+    }
+
+    /**
+     * Constructor.
+     * Play on a dictionary that may change while the game runs.
+     * */
+    public LadderGameWeighted(LadderDictionary dictionary, EdgeCost costs, boolean astar) {
+        super(dictionary);
+        this.costs = costs;
+        this.astar = astar;
+    }
+
+    @Override
+    public String getName() {
+        return (this.astar ? "weighted A* " : "weighted Dijkstra ") + this.costs.getName();
+    }
+
+    /**
+     * A weighted ladder is reported with its cost.
+     * */
+    @Override
+    public String format(LadderResult result) {
+        if (result.isFound()) {
+            return " [" + ladderToString(result) + "] cost " + cost(result) + " total enqueues " + result.getTotalEnqueues();
+        }
+        return super.format(result);
+    }
+
+    /**
+     * Edge costs are only defined for letter substitutions, so the weighted game cannot use edit moves.
+     * */
+    @Override
+    public void useEditMoves(boolean editMoves) {
+        if (editMoves) {
+            throw new IllegalStateException(
+                    "Weighted ladders only change one letter at a time; they cannot use useEditMoves(true).");
+        }
+        super.useEditMoves(false);
+    }
+
+    /**
+     * Return the total cost of the moves on a result's ladder, or 0 if it has none.
+     * */
+    public int cost(LadderResult result) {
+        WordGraph graph = result.getGraph();
+        int[] ladder = result.getLadder();
+        int total = 0;
+        for (int i = 1; i < ladder.length; i++) {
+            total += moveCost(graph, ladder[i - 1], ladder[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Attempt to find the cheapest word ladder from start to end.
+     * */
+    @Override
+    protected LadderResult search(int startId, int endId, SearchState state) {
+
+        // Only words of the same length can be on the ladder, so index the search arrays by slot
+        WordGraph graph = state.graph;
+        int length = graph.length(startId);
+        int count = graph.slotCount(length);
+
+        // Cheapest cost found so far to get to each word, and the word it was reached from
+        int[] cost = new int[count];
+        int[] parent = new int[count];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+
+        var openList = new RadixHeap(count);
+        int startSlot = graph.slot(startId);
+        openList.insert(startSlot, estimate(graph, startId, endId));
+        cost[startSlot] = 0;
+        parent[startSlot] = -1;
+        state.totalEnqueues++;
+        state.frontier(1);
+
+        while (!openList.isEmpty()) {
+            if (state.outOfBudget()) {
+                int closest = closestReached(graph, length, endId, slot -> cost[slot] != Integer.MAX_VALUE);
+                return stopped(ladderFromParents(graph, closest, parent), state);
+            }
+            int currentSlot = openList.deleteMin();
+            int current = graph.idAtSlot(length, currentSlot);
+            state.nodesExpanded++;
+
+            // A word's cost is final once it leaves the heap, so the end word is only done when it is removed
+            if (current == endId) {
+                return found(ladderFromParents(graph, endId, parent), state);
+            }
+
+            int neighbors = collectOneAway(current, false, state);
+            int[] words = state.oneAway;
+            for (int i = 0; i < neighbors; i++) {
+                int word = words[i];
+                int local = graph.slot(word);
+                int wordCost = cost[currentSlot] + moveCost(graph, current, word);
+                if (wordCost < cost[local]) {
+                    cost[local] = wordCost;
+                    parent[local] = current;
+                    int priority = wordCost + estimate(graph, word, endId);
+                    if (openList.contains(local)) {
+                        openList.decreaseKey(local, priority);
+                    }
+                    else {
+                        openList.insert(local, priority);
+                    }
+                    state.totalEnqueues++;
+                }
+            }
+            state.frontier(openList.size());
+        }
+
+        return notFound(state);
+
+    }
+
+    /**
+     * The cheapest ladder is not the one with the fewest moves that the distance tables and the cache hold.
+     * */
+    @Override
+    protected boolean fewestMoves(SearchState state) {
+        return false;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final EdgeCost costs;
+    private final boolean astar;
+
+    /**
+     * Return the cost of the move between two words that differ in one letter.
+     * */
+    private int moveCost(WordGraph graph, int from, int to) {
+        int position = 0;
+        while (graph.charAt(from, position) == graph.charAt(to, position)) {
+            position++;
+        }
+        return this.costs.cost(graph.charAt(from, position), graph.charAt(to, position));
+    }
+
+    /**
+     * Return a lower bound on the cost from word to end, or 0 for Dijkstra's algorithm.
+     * */
+    private int estimate(WordGraph graph, int word, int end) {
+        return this.astar ? graph.diff(word, end) * this.costs.minCost() : 0;
+    }
+
+}
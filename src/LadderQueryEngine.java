@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs many independent ladder queries at once against one shared, immutable word graph.
+ * Each query keeps its search state to itself, so the queries only share the read-only graph.
+ * */
+public class LadderQueryEngine implements AutoCloseable {
+
+    /**
+     * A single (start, end) query.
+     * */
+    public record Query(String start, String end) {}
+
+    /**
+     * Constructor.
+     * Run queries for the given game on one platform thread per core.
+     * */
+    public LadderQueryEngine(LadderGame game) {
+        this(game, Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    /**
+     * Constructor.
+     * Run queries for the given game on the given executor.
+     * If ownsExecutor is set, closing the engine also shuts the executor down.
+     * */
+    public LadderQueryEngine(LadderGame game, ExecutorService executor, boolean ownsExecutor) {
+        this.game = game;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Return an engine that runs every query on its own virtual thread.
+     * */
+    public static LadderQueryEngine withVirtualThreads(LadderGame game) {
+        return new LadderQueryEngine(game, Executors.newVirtualThreadPerTaskExecutor(), true);
+    }
+
+    /**
+     * Start a query and return its result once it completes.
+     * */
+    public CompletableFuture<LadderResult> submit(String start, String end) {
+        return submit(start, end, SearchBudget.unlimited());
+    }
+
+    /**
+     * Start a query that must stay within the given budget and return its result once it completes.
+     * Cancelling the future does not stop the search; cancel the budget's token to do that.
+     * */
+    public CompletableFuture<LadderResult> submit(String start, String end, SearchBudget budget) {
+        return CompletableFuture.supplyAsync(() -> game.solve(start, end, budget), executor);
+    }
+
+    /**
+     * Run every query at once and wait for all of them.
+     * Results are returned in the same order as the queries.
+     * */
+    public List<LadderResult> solveAll(List<Query> queries) {
+        List<CompletableFuture<LadderResult>> futures = new ArrayList<>(queries.size());
+        for (Query query : queries) {
+            futures.add(submit(query.start(), query.end()));
+        }
+
+        List<LadderResult> results = new ArrayList<>(queries.size());
+        for (CompletableFuture<LadderResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Shut the executor down if the engine owns it.
+     * */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.close();
+        }
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final LadderGame game;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+}
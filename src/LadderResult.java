@@ -0,0 +1,162 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The outcome of a single ladder query.
+ * The ladder is kept as word IDs, and words are only looked up if getWords or toString is called,
+ * so callers that only need IDs or statistics never pay for formatting.
+ * */
+public class LadderResult {
+
+    public enum Status {
+        FOUND,              // A ladder was found
+        NOT_FOUND,          // The search finished without reaching the end word
+        INVALID_INPUT,      // The words are not in the dictionary or have different lengths
+        BUDGET_EXCEEDED,    // The search ran out of time, or expanded or queued as many words as it was allowed
+        CANCELLED           // The search was cancelled through its budget's token
+    }
+
+    /**
+     * Return the result of a search that found a ladder, given as word IDs from the start word to the end word.
+     * */
+    public static LadderResult found(WordGraph graph, int[] ladder, int totalEnqueues, int nodesExpanded, long elapsedNanos) {
+        return new LadderResult(Status.FOUND, graph, ladder, totalEnqueues, nodesExpanded, elapsedNanos, null);
+    }
+
+    /**
+     * Return the result of a search that ran out of words without reaching the end word.
+     * */
+    public static LadderResult notFound(WordGraph graph, int totalEnqueues, int nodesExpanded, long elapsedNanos) {
+        return new LadderResult(Status.NOT_FOUND, graph, new int[0], totalEnqueues, nodesExpanded, elapsedNanos, null);
+    }
+
+    /**
+     * Return the result of a search that was stopped before it finished, with the status saying why.
+     * The ladder leads from the start word to the word closest to the end word that the search reached.
+     * */
+    public static LadderResult stopped(Status status, WordGraph graph, int[] partialLadder, int totalEnqueues,
+                                       int nodesExpanded, long elapsedNanos, String message) {
+        return new LadderResult(status, graph, partialLadder, totalEnqueues, nodesExpanded, elapsedNanos, message);
+    }
+
+    /**
+     * Return the result of a query that was rejected before searching.
+     * */
+    public static LadderResult invalidInput(String message) {
+        return new LadderResult(Status.INVALID_INPUT, null, new int[0], 0, 0, 0, message);
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public boolean isFound() {
+        return this.status == Status.FOUND;
+    }
+
+    /**
+     * Return true if the search was stopped by its budget or cancelled, so it may have missed a ladder.
+     * */
+    public boolean isStopped() {
+        return this.status == Status.BUDGET_EXCEEDED || this.status == Status.CANCELLED;
+    }
+
+    /**
+     * Return the ladder as word IDs from the start word to the end word, or an empty array if there is none.
+     * A stopped search returns the part of a ladder that it found, which ends at the word closest to the end word.
+     * */
+    public int[] getLadder() {
+        return this.ladder.clone();
+    }
+
+    /**
+     * Return the ID of the first word on the ladder, or -1 if there is none.
+     * */
+    public int getStartId() {
+        return this.ladder.length == 0 ? -1 : this.ladder[0];
+    }
+
+    /**
+     * Return the same result with the ladder running from the end word to the start word.
+     * */
+    public LadderResult reversed() {
+        int[] reversedLadder = new int[this.ladder.length];
+        for (int i = 0; i < this.ladder.length; i++) {
+            reversedLadder[i] = this.ladder[this.ladder.length - 1 - i];
+        }
+        return new LadderResult(status, graph, reversedLadder, totalEnqueues, nodesExpanded, elapsedNanos, message);
+    }
+
+    /**
+     * Return the ladder as words from the start word to the end word, or an empty list if there is none.
+     * */
+    public List<String> getWords() {
+        List<String> words = new ArrayList<>(this.ladder.length);
+        for (int id : this.ladder) {
+            words.add(this.graph.word(id));
+        }
+        return words;
+    }
+
+    /**
+     * Return the number of words on the ladder, including the start and end words.
+     * */
+    public int getLength() {
+        return this.ladder.length;
+    }
+
+    /**
+     * Return the version of the word graph the ladder's IDs belong to, or null if the query was rejected.
+     * */
+    public WordGraph getGraph() {
+        return this.graph;
+    }
+
+    public int getTotalEnqueues() {
+        return this.totalEnqueues;
+    }
+
+    public int getNodesExpanded() {
+        return this.nodesExpanded;
+    }
+
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Return why the query was rejected or stopped, or null if it was neither.
+     * */
+    public String getMessage() {
+        return this.message;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Status %s Ladder%s Enqueues %d Expanded %d Nanos %d",
+                status, this.graph == null ? "[]" : getWords().toString(), totalEnqueues, nodesExpanded, elapsedNanos);
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final Status status;
+    private final WordGraph graph;
+    private final int[] ladder;
+    private final int totalEnqueues;
+    private final int nodesExpanded;
+    private final long elapsedNanos;
+    private final String message;
+
+    private LadderResult(Status status, WordGraph graph, int[] ladder, int totalEnqueues, int nodesExpanded,
+                         long elapsedNanos, String message) {
+        this.status = status;
+        this.graph = graph;
+        this.ladder = ladder;
+        this.totalEnqueues = totalEnqueues;
+        this.nodesExpanded = nodesExpanded;
+        this.elapsedNanos = elapsedNanos;
+        this.message = message;
+    }
+
+}
@@ -0,0 +1,567 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Answers ladder queries over HTTP, on the JDK's built-in server.
+ * Every request runs on its own virtual thread, and every game plays on the same dictionary, so the words are
+ * loaded once no matter how many requests or algorithms there are.
+ *
+ * GET /ladder?from=kiss&to=woof&algo=astar answers one query. The algorithm is exhaustive or astar, and astar if
+ * it is not given.
+ * POST /ladders answers a batch, given as {"algo": "astar", "queries": [{"from": "kiss", "to": "woof"}, ...]},
+ * with {"results": [...]} holding one result per query, in order.
+ *
+ * A query that has not finished within the timeout is answered with the status TIMED_OUT, and its search is
+ * cancelled so it stops holding a thread soon after.
+ *
+ * Usage: java LadderServer [port] [dictionary file] [timeout millis]
+ * */
+public class LadderServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+    public static final int MAX_BATCH_QUERIES = 1000;
+    public static final int MAX_BODY_BYTES = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String dictionaryFile = args.length > 1 ? args[1] : "dictionary.txt";
+        long timeoutMillis = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_TIMEOUT_MILLIS;
+
+        LadderServer server = new LadderServer(LadderDictionary.open(dictionaryFile), timeoutMillis);
+        server.start(new InetSocketAddress(port));
+        System.out.println("Serving ladders on port " + server.getPort());
+    }
+
+    // PUBLIC MEMBERS --------------------------------------------------------------------------------------------------
+
+    /**
+     * Constructor.
+     * Serve queries on the given dictionary, giving each one the given number of milliseconds to finish.
+     * */
+    public LadderServer(LadderDictionary dictionary, long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("The timeout must be positive.");
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.engines = new HashMap<>();
+        this.engines.put("exhaustive", new LadderQueryEngine(new LadderGameExhaustive(dictionary, false), executor, false));
+        this.engines.put("astar", new LadderQueryEngine(new LadderGamePriority(dictionary, new LetterDiffHeuristic()), executor, false));
+    }
+
+    /**
+     * Start serving on localhost, on a free port. The port can be found with getPort.
+     * */
+    public void start() throws IOException {
+        start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    /**
+     * Start serving on the given address.
+     * */
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (this.server != null) {
+            throw new IllegalStateException("The server is already running.");
+        }
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/ladder", this::handleLadder);
+        server.createContext("/ladders", this::handleBatch);
+        server.setExecutor(this.executor);
+        server.start();
+        this.server = server;
+    }
+
+    /**
+     * Return the port the server listens on.
+     * */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Stop serving and shut down the request threads.
+     * */
+    @Override
+    public synchronized void close() {
+        if (this.server != null) {
+            this.server.stop(0);
+            this.server = null;
+        }
+        this.executor.close();
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final String TIMED_OUT = "TIMED_OUT";
+
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+    private final Map<String, LadderQueryEngine> engines;
+    private HttpServer server;
+
+    /**
+     * A request that cannot be answered, with the status code to answer it with.
+     * */
+    private static final class BadRequest extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int code;
+
+        BadRequest(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+
+    private void handleLadder(HttpExchange exchange) throws IOException {
+        try {
+            checkRequest(exchange, "/ladder", "GET");
+            Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            String from = required(parameters, "from");
+            String to = required(parameters, "to");
+            String algo = parameters.getOrDefault("algo", "astar");
+            LadderQueryEngine engine = engine(algo);
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeoutMillis);
+            CancellationToken cancellation = new CancellationToken();
+            SearchBudget budget = SearchBudget.unlimited().withCancellation(cancellation);
+            LadderResult result = await(engine.submit(from, to, budget), deadline);
+            if (result == null) {
+                cancellation.cancel();
+                send(exchange, 504, timedOutJson(from, to, algo));
+            }
+            else {
+                int code = result.getStatus() == LadderResult.Status.INVALID_INPUT ? 400 : 200;
+                send(exchange, code, resultJson(from, to, algo, result));
+            }
+        }
+        catch (BadRequest ex) {
+            send(exchange, ex.code, errorJson(ex.getMessage()));
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        try {
+            checkRequest(exchange, "/ladders", "POST");
+            Object body = Json.parse(readBody(exchange.getRequestBody()));
+            if (!(body instanceof Map<?, ?> request) || !(request.get("queries") instanceof List<?> queries)) {
+                throw new BadRequest(400, "The body must be an object with a list of queries.");
+            }
+            if (queries.size() > MAX_BATCH_QUERIES) {
+                throw new BadRequest(413, "A batch can hold at most " + MAX_BATCH_QUERIES + " queries.");
+            }
+            Object algoValue = request.containsKey("algo") ? request.get("algo") : "astar";
+            if (!(algoValue instanceof String algo)) {
+                throw new BadRequest(400, "The algorithm must be a string.");
+            }
+            LadderQueryEngine engine = engine(algo);
+
+            // Start every query at once; they all share the one deadline, and are cancelled together once it passes
+            CancellationToken cancellation = new CancellationToken();
+            SearchBudget budget = SearchBudget.unlimited().withCancellation(cancellation);
+            List<String[]> words = new ArrayList<>(queries.size());
+            List<CompletableFuture<LadderResult>> futures = new ArrayList<>(queries.size());
+            for (Object query : queries) {
+                if (!(query instanceof Map<?, ?> fields)
+                        || !(fields.get("from") instanceof String from) || !(fields.get("to") instanceof String to)) {
+                    throw new BadRequest(400, "Every query must be an object with from and to strings.");
+                }
+                words.add(new String[] { from, to });
+            }
+            for (String[] query : words) {
+                futures.add(engine.submit(query[0], query[1], budget));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeoutMillis);
+            StringBuilder json = new StringBuilder("{\"results\":[");
+            for (int i = 0; i < futures.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                String from = words.get(i)[0];
+                String to = words.get(i)[1];
+                LadderResult result;
+                try {
+                    result = await(futures.get(i), deadline);
+                }
+                catch (BadRequest ex) {
+                    // The batch is answered with the error alone, so the other queries need not finish
+                    cancellation.cancel();
+                    throw ex;
+                }
+                if (result == null) {
+                    cancellation.cancel();
+                }
+                json.append(result == null ? timedOutJson(from, to, algo) : resultJson(from, to, algo, result));
+            }
+            send(exchange, 200, json.append("]}").toString());
+        }
+        catch (BadRequest ex) {
+            send(exchange, ex.code, errorJson(ex.getMessage()));
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reject requests for paths under the context that are not the context itself, and requests with another method.
+     * */
+    private static void checkRequest(HttpExchange exchange, String path, String method) throws BadRequest {
+        if (!exchange.getRequestURI().getPath().equals(path)) {
+            throw new BadRequest(404, "No such endpoint.");
+        }
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new BadRequest(405, path + " only accepts " + method + ".");
+        }
+    }
+
+    private LadderQueryEngine engine(String algo) throws BadRequest {
+        LadderQueryEngine engine = this.engines.get(algo);
+        if (engine == null) {
+            throw new BadRequest(400, "Unknown algorithm " + algo + "; use exhaustive or astar.");
+        }
+        return engine;
+    }
+
+    /**
+     * Wait for a query until the deadline, given in System.nanoTime units, and return null if it did not finish.
+     * A query that failed is answered with a 500.
+     * */
+    private static LadderResult await(CompletableFuture<LadderResult> future, long deadline)
+            throws IOException, BadRequest {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException ex) {
+            return null;
+        }
+        catch (ExecutionException ex) {
+            throw new BadRequest(500, "The query failed.");
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the query.", ex);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.putIfAbsent(name, value);
+        }
+        return parameters;
+    }
+
+    private static String required(Map<String, String> parameters, String name) throws BadRequest {
+        String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new BadRequest(400, "Missing parameter " + name + ".");
+        }
+        return value;
+    }
+
+    private static String readBody(InputStream body) throws IOException, BadRequest {
+        byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new BadRequest(413, "The body can be at most " + MAX_BODY_BYTES + " bytes.");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int code, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String resultJson(String from, String to, String algo, LadderResult result) {
+        StringBuilder json = new StringBuilder("{");
+        queryFields(json, from, to, algo);
+        json.append(",\"status\":").append(Json.quote(result.getStatus().name()));
+        if (result.getStatus() == LadderResult.Status.INVALID_INPUT) {
+            return json.append(",\"message\":").append(Json.quote(result.getMessage())).append('}').toString();
+        }
+
+        json.append(",\"ladder\":[");
+        List<String> ladder = result.getWords();
+        for (int i = 0; i < ladder.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(Json.quote(ladder.get(i)));
+        }
+        json.append("],\"moves\":").append(Math.max(ladder.size() - 1, 0))
+                .append(",\"totalEnqueues\":").append(result.getTotalEnqueues())
+                .append(",\"nodesExpanded\":").append(result.getNodesExpanded())
+                .append(",\"elapsedNanos\":").append(result.getElapsedNanos());
+        if (result.isStopped()) {
+            json.append(",\"message\":").append(Json.quote(result.getMessage()));
+        }
+        return json.append('}').toString();
+    }
+
+    private String timedOutJson(String from, String to, String algo) {
+        StringBuilder json = new StringBuilder("{");
+        queryFields(json, from, to, algo);
+        json.append(",\"status\":").append(Json.quote(TIMED_OUT))
+                .append(",\"message\":").append(Json.quote("No answer within " + this.timeoutMillis + " ms."));
+        return json.append('}').toString();
+    }
+
+    private static void queryFields(StringBuilder json, String from, String to, String algo) {
+        json.append("\"from\":").append(Json.quote(from))
+                .append(",\"to\":").append(Json.quote(to))
+                .append(",\"algo\":").append(Json.quote(algo));
+    }
+
+    private static String errorJson(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    /**
+     * Just enough JSON for the batch requests: parse turns objects into maps and arrays into lists, and
+     * quote writes a string.
+     * The parser recurses into nested values, so bodies that nest deeper than any batch request needs are rejected
+     * before they can run it out of stack.
+     * */
+    private static final class Json {
+
+        static final int MAX_DEPTH = 32;
+
+        static Object parse(String text) throws BadRequest {
+            Json json = new Json(text);
+            Object value = json.value();
+            json.skipSpace();
+            if (json.position != text.length()) {
+                throw json.error();
+            }
+            return value;
+        }
+
+        static String quote(String text) {
+            StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> quoted.append("\\\"");
+                    case '\\' -> quoted.append("\\\\");
+                    case '\n' -> quoted.append("\\n");
+                    case '\r' -> quoted.append("\\r");
+                    case '\t' -> quoted.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            quoted.append(String.format("\\u%04x", (int) c));
+                        }
+                        else {
+                            quoted.append(c);
+                        }
+                    }
+                }
+            }
+            return quoted.append('"').toString();
+        }
+
+        private final String text;
+        private int position;
+        private int depth;      // Objects and arrays open around the current position
+
+        private Json(String text) {
+            this.text = text;
+        }
+
+        private Object value() throws BadRequest {
+            skipSpace();
+            if (this.position >= this.text.length()) {
+                throw error();
+            }
+            char c = this.text.charAt(this.position);
+            if ((c == '{' || c == '[') && this.depth == MAX_DEPTH) {
+                throw new BadRequest(400, "The body nests more than " + MAX_DEPTH + " levels deep.");
+            }
+            switch (c) {
+                case '{':
+                    return object();
+                case '[':
+                    return array();
+                case '"':
+                    return string();
+                case 't':
+                    return literal("true", Boolean.TRUE);
+                case 'f':
+                    return literal("false", Boolean.FALSE);
+                case 'n':
+                    return literal("null", null);
+                default:
+                    return number();
+            }
+        }
+
+        private Map<String, Object> object() throws BadRequest {
+            Map<String, Object> object = new LinkedHashMap<>();
+            this.position++;
+            this.depth++;
+            skipSpace();
+            if (peek() == '}') {
+                this.position++;
+                this.depth--;
+                return object;
+            }
+            while (true) {
+                skipSpace();
+                if (peek() != '"') {
+                    throw error();
+                }
+                String name = string();
+                skipSpace();
+                expect(':');
+                object.put(name, value());
+                skipSpace();
+                if (peek() == '}') {
+                    this.position++;
+                    this.depth--;
+                    return object;
+                }
+                expect(',');
+            }
+        }
+
+        private List<Object> array() throws BadRequest {
+            List<Object> array = new ArrayList<>();
+            this.position++;
+            this.depth++;
+            skipSpace();
+            if (peek() == ']') {
+                this.position++;
+                this.depth--;
+                return array;
+            }
+            while (true) {
+                array.add(value());
+                skipSpace();
+                if (peek() == ']') {
+                    this.position++;
+                    this.depth--;
+                    return array;
+                }
+                expect(',');
+            }
+        }
+
+        private String string() throws BadRequest {
+            StringBuilder string = new StringBuilder();
+            this.position++;
+            while (this.position < this.text.length()) {
+                char c = this.text.charAt(this.position++);
+                if (c == '"') {
+                    return string.toString();
+                }
+                if (c != '\\') {
+                    string.append(c);
+                    continue;
+                }
+                if (this.position >= this.text.length()) {
+                    break;
+                }
+                char escaped = this.text.charAt(this.position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> string.append(escaped);
+                    case 'b' -> string.append('\b');
+                    case 'f' -> string.append('\f');
+                    case 'n' -> string.append('\n');
+                    case 'r' -> string.append('\r');
+                    case 't' -> string.append('\t');
+                    case 'u' -> {
+                        if (this.position + 4 > this.text.length()) {
+                            throw error();
+                        }
+                        try {
+                            string.append((char) Integer.parseInt(this.text.substring(this.position, this.position + 4), 16));
+                        }
+                        catch (NumberFormatException ex) {
+                            throw error();
+                        }
+                        this.position += 4;
+                    }
+                    default -> throw error();
+                }
+            }
+            throw error();
+        }
+
+        private Double number() throws BadRequest {
+            int start = this.position;
+            while (this.position < this.text.length() && "+-0123456789.eE".indexOf(this.text.charAt(this.position)) >= 0) {
+                this.position++;
+            }
+            try {
+                return Double.valueOf(this.text.substring(start, this.position));
+            }
+            catch (NumberFormatException ex) {
+                throw error();
+            }
+        }
+
+        private Object literal(String word, Object value) throws BadRequest {
+            if (!this.text.startsWith(word, this.position)) {
+                throw error();
+            }
+            this.position += word.length();
+            return value;
+        }
+
+        private void expect(char c) throws BadRequest {
+            if (peek() != c) {
+                throw error();
+            }
+            this.position++;
+        }
+
+        private char peek() {
+            return this.position < this.text.length() ? this.text.charAt(this.position) : '\0';
+        }
+
+        private void skipSpace() {
+            while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position))) {
+                this.position++;
+            }
+        }
+
+        private BadRequest error() {
+            return new BadRequest(400, "The body is not valid JSON (at character " + this.position + ").");
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+import java.util.Arrays;
+
+/**
+ * ALT (A*, landmarks and the triangle inequality) lower bounds.
+ * For every word length a few landmark words are chosen, and the moves from each landmark to every word of that
+ * length are found ahead of time. For any landmark L, d(word, end) >= |d(L, word) - d(L, end)|, so the largest of
+ * these bounds is a lower bound on the moves left. It is combined with the letter difference, which is also one.
+ * Landmarks are chosen inside the largest component of each length, spread out by farthest-point selection.
+ * Adding or removing words changes the distances, so for a length whose words changed since the landmarks were
+ * chosen, only the letter difference is used.
+ * */
+public class LandmarkHeuristic implements Heuristic {
+
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    /**
+     * Constructor.
+     * Choose the given number of landmarks for every word length and find their distances to every word.
+     * */
+    public LandmarkHeuristic(WordGraph graph, int landmarksPerLength) {
+        if (landmarksPerLength < 1) {
+            throw new IllegalArgumentException("At least one landmark per word length is needed.");
+        }
+        this.graph = graph;
+        this.distances = new short[landmarksPerLength][graph.size()];
+        for (short[] row : this.distances) {
+            Arrays.fill(row, UNREACHABLE);
+        }
+        this.landmarks = new int[graph.maxLength() + 1][];
+
+        for (int length = 0; length <= graph.maxLength(); length++) {
+            chooseLandmarks(length, landmarksPerLength);
+        }
+    }
+
+    /**
+     * Constructor.
+     * Use the default number of landmarks for every word length.
+     * */
+    public LandmarkHeuristic(WordGraph graph) {
+        this(graph, DEFAULT_LANDMARKS);
+    }
+
+    @Override
+    public int estimate(WordGraph graph, int word, int end) {
+        int best = graph.diff(word, end);
+        if (graph != this.graph && !graph.sameWordsAs(this.graph, graph.length(word))) {
+            return best;
+        }
+        for (short[] row : this.distances) {
+            int fromLandmark = row[word];
+            int toEnd = row[end];
+
+            // A landmark in another component says nothing about these words
+            if (fromLandmark != UNREACHABLE && toEnd != UNREACHABLE) {
+                best = Math.max(best, Math.abs(fromLandmark - toEnd));
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public String getName() {
+        return "landmark";
+    }
+
+    /**
+     * Return the landmarks chosen for the given word length.
+     * */
+    public int[] getLandmarks(int length) {
+        if (length < 0 || length >= this.landmarks.length) {
+            return new int[0];
+        }
+        return this.landmarks[length].clone();
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final short UNREACHABLE = -1;
+
+    private final WordGraph graph;
+    private final short[][] distances;  // Moves from the k-th landmark of a word's length to the word
+    private final int[][] landmarks;    // The landmarks of each word length
+
+    /**
+     * Choose landmarks inside the largest component of the given length.
+     * The first landmark is the word farthest from an arbitrary word, and each next one is the word
+     * whose nearest landmark is farthest away.
+     * */
+    private void chooseLandmarks(int length, int landmarksPerLength) {
+        int slots = graph.slotCount(length);
+        ComponentIndex components = graph.components();
+
+        // Find a word in the largest component; ties go to the first slot
+        int seed = -1;
+        for (int slot = 0; slot < slots; slot++) {
+            int id = graph.idAtSlot(length, slot);
+            if (graph.contains(id) && (seed < 0 || components.componentSize(id) > components.componentSize(seed))) {
+                seed = id;
+            }
+        }
+        if (seed < 0 || components.componentSize(seed) < 2) {
+            this.landmarks[length] = new int[0];
+            return;
+        }
+
+        int count = Math.min(landmarksPerLength, components.componentSize(seed));
+        this.landmarks[length] = new int[count];
+        int[] nearest = new int[slots];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        // The distances of the seed are only used to find the first landmark, so borrow the first row
+        short[] row = this.distances[0];
+        breadthFirstSearch(seed, row);
+        int candidate = farthest(length, row, null);
+
+        for (int k = 0; k < count; k++) {
+            this.landmarks[length][k] = candidate;
+            row = this.distances[k];
+            for (int slot = 0; slot < slots; slot++) {
+                row[graph.idAtSlot(length, slot)] = UNREACHABLE;
+            }
+            breadthFirstSearch(candidate, row);
+            for (int slot = 0; slot < slots; slot++) {
+                int id = graph.idAtSlot(length, slot);
+                if (row[id] != UNREACHABLE) {
+                    nearest[slot] = Math.min(nearest[slot], row[id]);
+                }
+            }
+            candidate = farthest(length, row, nearest);
+        }
+    }
+
+    /**
+     * Return the reachable word that is farthest away, either in the given row or, if nearest is given,
+     * from its nearest landmark. Nearest is indexed by slot.
+     * */
+    private int farthest(int length, short[] row, int[] nearest) {
+        int best = -1;
+        int bestDistance = -1;
+        for (int slot = 0; slot < graph.slotCount(length); slot++) {
+            int id = graph.idAtSlot(length, slot);
+            if (row[id] == UNREACHABLE) {
+                continue;
+            }
+            int distance = nearest == null ? row[id] : nearest[slot];
+            if (distance > bestDistance) {
+                best = id;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Fill in the moves from the source to every word it can reach.
+     * Words that are not reached keep their current value, which must be UNREACHABLE.
+     * */
+    private void breadthFirstSearch(int source, short[] row) {
+        int[] queue = new int[graph.slotCount(graph.length(source))];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        row[source] = 0;
+
+        while (head < tail) {
+            int current = queue[head++];
+            short distance = (short) (row[current] + 1);
+            for (int i = graph.neighborStart(current); i < graph.neighborEnd(current); i++) {
+                int neighbor = graph.neighbor(i);
+                if (row[neighbor] == UNREACHABLE) {
+                    row[neighbor] = distance;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+}
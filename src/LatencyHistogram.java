@@ -0,0 +1,127 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of durations in nanoseconds, with a fixed number of buckets.
+ * Each power of two is split into eight buckets, so a percentile is off by at most an eighth of its value.
+ * The buckets are striped counters, so threads recording at once do not contend on one memory location.
+ * Reads are not atomic with respect to recording, so a percentile taken while queries run is approximate.
+ * */
+public class LatencyHistogram {
+
+    /**
+     * Count one duration. Negative durations are counted as zero.
+     * */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        this.buckets[bucket(nanos)].increment();
+        this.total.add(nanos);
+        this.max.accumulate(nanos);
+    }
+
+    /**
+     * Return the number of durations recorded.
+     * */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : this.buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Return the mean duration, or 0 if none were recorded.
+     * */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) this.total.sum() / count;
+    }
+
+    /**
+     * Return the longest duration recorded, or 0 if none were.
+     * */
+    public long max() {
+        return this.max.get();
+    }
+
+    /**
+     * Return the duration that the given percentage of recorded durations are at most, or 0 if none were recorded.
+     * The answer is the upper bound of the bucket the percentile falls in, but never more than the maximum.
+     * */
+    public long percentile(double percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("A percentile must be between 0 and 100.");
+        }
+
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Count %d Mean %.0f p50 %d p99 %d Max %d",
+                count(), mean(), percentile(50), percentile(99), max());
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final int SUB_BITS = 3;                  // Eight buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Return the bucket of a duration. Values below SUB_BUCKETS get a bucket each; above that, the top bit picks
+     * the power of two and the SUB_BITS bits after it pick the bucket within it.
+     * */
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Return the largest duration that falls in a bucket.
+     * */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        long width = 1L << (exponent - SUB_BITS);
+        return lower + width - 1 < lower ? Long.MAX_VALUE : lower + width - 1;
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Edge costs kept in a table with one entry for every pair of the letters a to z.
+ * Changing to or from any other character costs as much as the most expensive change in the table.
+ * */
+public class LetterCosts implements EdgeCost {
+
+    /**
+     * Return costs where every change costs one, so the cheapest ladders are the shortest ones.
+     * */
+    public static LetterCosts unit() {
+        return new LetterCosts("unit", (from, to) -> 1);
+    }
+
+    /**
+     * Return costs where changing a vowel into another vowel is cheap and every other change is not.
+     * */
+    public static LetterCosts vowels(int vowelCost, int otherCost) {
+        return new LetterCosts("vowels", (from, to) -> isVowel(from) && isVowel(to) ? vowelCost : otherCost);
+    }
+
+    /**
+     * Return costs that grow with the distance between the two keys on a QWERTY keyboard,
+     * counting one for the change and one for each row and column between the keys.
+     * */
+    public static LetterCosts keyboard() {
+        return new LetterCosts("keyboard", (from, to) -> {
+            int row1 = keyRow(from);
+            int row2 = keyRow(to);
+            int column1 = KEY_ROWS[row1].indexOf(from);
+            int column2 = KEY_ROWS[row2].indexOf(to);
+            return 1 + Math.abs(row1 - row2) + Math.abs(column1 - column2);
+        });
+    }
+
+    /**
+     * The cost of one pair of letters, used to fill the table.
+     * */
+    public interface PairCost {
+        int cost(char from, char to);
+    }
+
+    /**
+     * Constructor.
+     * Fill the table from the given cost of each pair of letters, which must be at least one.
+     * */
+    public LetterCosts(String name, PairCost pairCost) {
+        this.name = name;
+        this.table = new int[LETTERS * LETTERS];
+        int min = Integer.MAX_VALUE;
+        int max = 1;
+        for (char from = 'a'; from <= 'z'; from++) {
+            for (char to = 'a'; to <= 'z'; to++) {
+                if (from == to) {
+                    continue;
+                }
+                int cost = pairCost.cost(from, to);
+                if (cost < 1) {
+                    throw new IllegalArgumentException("Changing " + from + " into " + to + " must cost at least one.");
+                }
+                this.table[(from - 'a') * LETTERS + (to - 'a')] = cost;
+                min = Math.min(min, cost);
+                max = Math.max(max, cost);
+            }
+        }
+        this.minCost = min;
+        this.otherCost = max;
+    }
+
+    @Override
+    public int cost(char from, char to) {
+        if (from < 'a' || from > 'z' || to < 'a' || to > 'z') {
+            return this.otherCost;
+        }
+        return this.table[(from - 'a') * LETTERS + (to - 'a')];
+    }
+
+    @Override
+    public int minCost() {
+        return this.minCost;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final int LETTERS = 26;
+    private static final String[] KEY_ROWS = { "qwertyuiop", "asdfghjkl", "zxcvbnm" };
+
+    private final String name;
+    private final int[] table;      // Cost of changing each letter into each other letter, row by row
+    private final int minCost;
+    private final int otherCost;    // Cost of a change to or from a character outside a to z
+
+    private static boolean isVowel(char letter) {
+        return "aeiou".indexOf(letter) >= 0;
+    }
+
+    private static int keyRow(char letter) {
+        for (int row = 0; row < KEY_ROWS.length; row++) {
+            if (KEY_ROWS[row].indexOf(letter) >= 0) {
+                return row;
+            }
+        }
+        throw new IllegalArgumentException("There is no key for " + letter + ".");
+    }
+
+}
@@ -0,0 +1,17 @@
+/**
+ * Estimate the moves left as the number of letters that still differ from the end word.
+ * Every move changes a single letter, so this never overestimates.
+ * */
+public class LetterDiffHeuristic implements Heuristic {
+
+    @Override
+    public int estimate(WordGraph graph, int word, int end) {
+        return graph.diff(word, end);
+    }
+
+    @Override
+    public String getName() {
+        return "letter difference";
+    }
+
+}
@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Groups dictionary words under wildcard patterns such as "c*t".
+ * Two words of the same length are one letter apart exactly when they share one of these patterns,
+ * so the neighbors of a word can be found without comparing it against every word of the same length.
+ * */
+public class NeighborIndex {
+
+    /**
+     * Constructor.
+     * Index every word of the dictionary under each of its wildcard patterns.
+     * The index into the dictionary corresponds to word length.
+     * */
+    public NeighborIndex(ArrayList<ArrayList<String>> dictionary) {
+        this.buckets = new HashMap<>();
+        this.positions = new HashMap<>();
+
+        for (ArrayList<String> wordsOfSameLength : dictionary) {
+            for (int position = 0; position < wordsOfSameLength.size(); position++) {
+                String word = wordsOfSameLength.get(position);
+                this.positions.put(word, position);
+                for (int i = 0; i < word.length(); i++) {
+                    this.buckets.computeIfAbsent(pattern(word, i), k -> new ArrayList<>()).add(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return every dictionary word that is one character off from the given word.
+     * The words are returned in the order they appear in the dictionary.
+     * */
+    public ArrayList<String> neighbors(String word) {
+        ArrayList<String> words = new ArrayList<>();
+
+        // A word shares exactly one pattern with each of its neighbors, so no word is collected twice
+        for (int i = 0; i < word.length(); i++) {
+            ArrayList<String> bucket = this.buckets.get(pattern(word, i));
+            if (bucket == null) {
+                continue;
+            }
+            for (String w : bucket) {
+                if (!w.equals(word)) {
+                    words.add(w);
+                }
+            }
+        }
+
+        words.sort((w1, w2) -> Integer.compare(this.positions.get(w1), this.positions.get(w2)));
+        return words;
+    }
+
+    /**
+     * Return the position of a word among the dictionary words of the same length.
+     * */
+    public int position(String word) {
+        return this.positions.get(word);
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final HashMap<String, ArrayList<String>> buckets;
+    private final HashMap<String, Integer> positions;
+
+    /**
+     * Replace the character at the given index with a wildcard.
+     * */
+    private static String pattern(String word, int index) {
+        return word.substring(0, index) + '*' + word.substring(index + 1);
+    }
+
+}
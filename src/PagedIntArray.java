@@ -0,0 +1,64 @@
+import java.util.Arrays;
+
+/**
+ * An int array that versions of a structure can share, split into fixed-size pages.
+ * A copy shares every page with the original, and a page is only copied the first time the copy writes to it,
+ * so making a changed copy costs the number of pages plus the pages written instead of the whole array.
+ * Indexes that were never written read as zero, and the array grows as needed.
+ * Once a copy is handed to other threads it must not be written again.
+ * */
+public class PagedIntArray {
+
+    /**
+     * Constructor.
+     * Start with no pages; every index reads as zero.
+     * */
+    public PagedIntArray() {
+        this.pages = new int[0][];
+        this.owned = new boolean[0];
+    }
+
+    /**
+     * Return a copy that shares this array's pages until it writes to them.
+     * */
+    public PagedIntArray copy() {
+        return new PagedIntArray(this.pages.clone());
+    }
+
+    public int get(int index) {
+        int page = index >>> PAGE_BITS;
+        if (page >= this.pages.length || this.pages[page] == null) {
+            return 0;
+        }
+        return this.pages[page][index & PAGE_MASK];
+    }
+
+    public void set(int index, int value) {
+        int page = index >>> PAGE_BITS;
+        if (page >= this.pages.length) {
+            int grown = Math.max(page + 1, this.pages.length * 2);
+            this.pages = Arrays.copyOf(this.pages, grown);
+            this.owned = Arrays.copyOf(this.owned, grown);
+        }
+        if (!this.owned[page]) {
+            this.pages[page] = this.pages[page] == null ? new int[PAGE_SIZE] : this.pages[page].clone();
+            this.owned[page] = true;
+        }
+        this.pages[page][index & PAGE_MASK] = value;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private int[][] pages;
+    private boolean[] owned;    // Pages this copy wrote to, which no other copy shares
+
+    private PagedIntArray(int[][] pages) {
+        this.pages = pages;
+        this.owned = new boolean[pages.length];
+    }
+
+}
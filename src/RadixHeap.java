@@ -0,0 +1,188 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A monotone radix heap of int IDs in the range [0, capacity), ordered by a non-negative int priority.
+ * It only serves searches whose smallest priority never goes down, such as Dijkstra's algorithm or A* with a
+ * consistent heuristic: no priority may be smaller than that of the last ID removed.
+ *
+ * IDs are kept in buckets by the highest bit in which their priority differs from the last one removed, so an ID
+ * only ever moves to a lower bucket and is touched at most once per bit of its priority. With small edge weights
+ * most IDs sit in the first few buckets, and every operation is a few array writes instead of a walk down a tree.
+ * Each ID is in the heap at most once and its place is tracked, which allows decreaseKey in O(1).
+ * IDs with the same priority come out in no particular order.
+ * */
+public class RadixHeap {
+
+    /**
+     * Construct an empty heap for IDs in the range [0, capacity).
+     * */
+    public RadixHeap(int capacity) {
+        this.priorities = new int[capacity];
+        this.bucketOf = new int[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(this.bucketOf, -1);
+        this.buckets = new int[BUCKETS][];
+        this.bucketSizes = new int[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new int[4];
+        }
+        this.last = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Test if the heap is empty.
+     * */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Return the number of IDs in the heap.
+     * */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Return true if the ID is currently in the heap.
+     * */
+    public boolean contains(int id) {
+        return this.bucketOf[id] >= 0;
+    }
+
+    /**
+     * Return the priority of an ID that is in the heap.
+     * */
+    public int priority(int id) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("ID " + id + " is not in the heap.");
+        }
+        return this.priorities[id];
+    }
+
+    /**
+     * Add an ID that is not yet in the heap, with a priority no smaller than that of the last ID removed.
+     * */
+    public void insert(int id, int priority) {
+        if (contains(id)) {
+            throw new IllegalArgumentException("ID " + id + " is already in the heap.");
+        }
+        checkMonotone(priority);
+        this.priorities[id] = priority;
+        add(id);
+        this.size++;
+    }
+
+    /**
+     * Lower the priority of an ID that is in the heap, to no less than that of the last ID removed.
+     * */
+    public void decreaseKey(int id, int priority) {
+        if (priority > priority(id)) {
+            throw new IllegalArgumentException("The new priority of ID " + id + " is larger than the old one.");
+        }
+        checkMonotone(priority);
+        remove(id);
+        this.priorities[id] = priority;
+        add(id);
+    }
+
+    /**
+     * Remove an ID with the smallest priority and return it.
+     * */
+    public int deleteMin() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap is empty. Cannot delete the minimum.");
+        }
+
+        // Once the first bucket runs dry, the smallest priority is in the lowest bucket that has IDs.
+        // Making it the new reference spreads that bucket over the buckets below it.
+        if (this.bucketSizes[0] == 0) {
+            int bucket = 1;
+            while (this.bucketSizes[bucket] == 0) {
+                bucket++;
+            }
+            int[] ids = this.buckets[bucket];
+            int count = this.bucketSizes[bucket];
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                min = Math.min(min, this.priorities[ids[i]]);
+            }
+            this.last = min;
+            this.bucketSizes[bucket] = 0;
+            for (int i = 0; i < count; i++) {
+                add(ids[i]);
+            }
+        }
+
+        int min = this.buckets[0][--this.bucketSizes[0]];
+        this.bucketOf[min] = -1;
+        this.size--;
+        return min;
+    }
+
+    /**
+     * Make the heap logically empty, and let priorities start from zero again.
+     * */
+    public void clear() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (int i = 0; i < this.bucketSizes[bucket]; i++) {
+                this.bucketOf[this.buckets[bucket][i]] = -1;
+            }
+            this.bucketSizes[bucket] = 0;
+        }
+        this.last = 0;
+        this.size = 0;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    // Bucket 0 holds the priority of the last ID removed, and bucket b the priorities whose highest bit that differs
+    // from it is bit b - 1. Priorities are non-negative, so they differ in at most the low 31 bits.
+    private static final int BUCKETS = 32;
+
+    private final int[][] buckets;      // IDs of each bucket, in no order
+    private final int[] bucketSizes;
+    private final int[] priorities;     // Priority of each ID
+    private final int[] bucketOf;       // Bucket of each ID, or -1 if it is not in the heap
+    private final int[] positions;      // Index of each ID into its bucket
+    private int last;                   // Priority of the last ID removed
+    private int size;
+
+    private void checkMonotone(int priority) {
+        if (priority < this.last) {
+            throw new IllegalArgumentException("Priority " + priority + " is smaller than the last one removed, "
+                    + this.last + ".");
+        }
+    }
+
+    /**
+     * Put an ID into the bucket its priority belongs in.
+     * */
+    private void add(int id) {
+        int priority = this.priorities[id];
+        int bucket = priority == this.last ? 0 : 32 - Integer.numberOfLeadingZeros(priority ^ this.last);
+        int count = this.bucketSizes[bucket];
+        if (count == this.buckets[bucket].length) {
+            this.buckets[bucket] = Arrays.copyOf(this.buckets[bucket], count * 2);
+        }
+        this.buckets[bucket][count] = id;
+        this.bucketSizes[bucket] = count + 1;
+        this.bucketOf[id] = bucket;
+        this.positions[id] = count;
+    }
+
+    /**
+     * Take an ID out of its bucket by moving the bucket's last ID into its place.
+     * */
+    private void remove(int id) {
+        int bucket = this.bucketOf[id];
+        int position = this.positions[id];
+        int lastId = this.buckets[bucket][--this.bucketSizes[bucket]];
+        this.buckets[bucket][position] = lastId;
+        this.positions[lastId] = position;
+        this.bucketOf[id] = -1;
+    }
+
+}
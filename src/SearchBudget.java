@@ -0,0 +1,94 @@
+import java.time.Duration;
+
+/**
+ * Limits on how much a single query may do before it gives up: how long it may run, how many words it may expand
+ * and queue, and a token that can cancel it. A query that hits a limit stops and returns a result with the status
+ * BUDGET_EXCEEDED or CANCELLED, holding the ladder to the word closest to the end word that it reached.
+ * A budget never changes, so one budget can be given to any number of queries; the time limit counts from the start
+ * of each of them.
+ * */
+public final class SearchBudget {
+
+    /**
+     * Return the budget without limits, which every query has unless it is given another.
+     * */
+    public static SearchBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Return this budget with a limit on how long a query may run.
+     * */
+    public SearchBudget withTimeout(Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("The timeout must be positive.");
+        }
+        return new SearchBudget(timeout.toNanos(), this.maxExpanded, this.maxEnqueues, this.cancellation);
+    }
+
+    /**
+     * Return this budget with a limit on how many words a query may expand.
+     * */
+    public SearchBudget withMaxExpanded(int maxExpanded) {
+        if (maxExpanded < 1) {
+            throw new IllegalArgumentException("A query must be allowed to expand at least one word.");
+        }
+        return new SearchBudget(this.timeoutNanos, maxExpanded, this.maxEnqueues, this.cancellation);
+    }
+
+    /**
+     * Return this budget with a limit on how many words a query may queue.
+     * */
+    public SearchBudget withMaxEnqueues(int maxEnqueues) {
+        if (maxEnqueues < 1) {
+            throw new IllegalArgumentException("A query must be allowed to queue at least one word.");
+        }
+        return new SearchBudget(this.timeoutNanos, this.maxExpanded, maxEnqueues, this.cancellation);
+    }
+
+    /**
+     * Return this budget with a token that can cancel the queries given it.
+     * */
+    public SearchBudget withCancellation(CancellationToken cancellation) {
+        return new SearchBudget(this.timeoutNanos, this.maxExpanded, this.maxEnqueues, cancellation);
+    }
+
+    /**
+     * Return how long a query may run in nanoseconds, or 0 if there is no limit.
+     * */
+    public long getTimeoutNanos() {
+        return this.timeoutNanos;
+    }
+
+    public int getMaxExpanded() {
+        return this.maxExpanded;
+    }
+
+    public int getMaxEnqueues() {
+        return this.maxEnqueues;
+    }
+
+    /**
+     * Return true if the budget was given a token and it was cancelled.
+     * */
+    public boolean isCancelled() {
+        return this.cancellation != null && this.cancellation.isCancelled();
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final SearchBudget UNLIMITED = new SearchBudget(0, Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+
+    private final long timeoutNanos;
+    private final int maxExpanded;
+    private final int maxEnqueues;
+    private final CancellationToken cancellation;
+
+    private SearchBudget(long timeoutNanos, int maxExpanded, int maxEnqueues, CancellationToken cancellation) {
+        this.timeoutNanos = timeoutNanos;
+        this.maxExpanded = maxExpanded;
+        this.maxEnqueues = maxEnqueues;
+        this.cancellation = cancellation;
+    }
+
+}
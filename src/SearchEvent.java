@@ -0,0 +1,49 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one ladder search. Its duration is the wall time of the query.
+ * Record it with: java -XX:StartFlightRecording:filename=ladders.jfr ...
+ * and read it with: jfr print --events wordladders.Search ladders.jfr
+ * When no recording is running the event is disabled and a query only pays for creating it.
+ * */
+@Name("wordladders.Search")
+@Label("Ladder Search")
+@Category("Word Ladders")
+@Description("A search for the shortest word ladder between two words")
+@StackTrace(false)
+public class SearchEvent extends jdk.jfr.Event {
+
+    @Label("Start Word")
+    public String startWord;
+
+    @Label("End Word")
+    public String endWord;
+
+    @Label("Algorithm")
+    public String algorithm;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Ladder Length")
+    @Description("Words on the ladder, including the start and end words")
+    public int ladderLength;
+
+    @Label("Nodes Expanded")
+    public int nodesExpanded;
+
+    @Label("Total Enqueues")
+    public int totalEnqueues;
+
+    @Label("Peak Frontier")
+    @Description("Most words waiting to be expanded at once")
+    public int peakFrontier;
+
+    @Label("OneAway Calls")
+    public int oneAwayCalls;
+
+}
@@ -0,0 +1,157 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe registry of search statistics, kept per algorithm.
+ * Each query is counted here when reset creates its search state, counts its own work in that state, and adds it
+ * here once when it ends. Every total is a striped counter, so games running queries on many threads can share one
+ * registry at little cost.
+ * Games that share a registry and an algorithm name share their statistics.
+ * */
+public class SearchMetrics {
+
+    /**
+     * The statistics of one algorithm.
+     * */
+    public static final class Counters {
+
+        /**
+         * Return the number of search states handed out, one for every query started.
+         * The queries started but not answered yet are the difference with getQueries.
+         * */
+        public long getStarted() {
+            return this.started.sum();
+        }
+
+        /**
+         * Return the number of queries answered, whether or not a ladder was found.
+         * */
+        public long getQueries() {
+            return this.queries.sum();
+        }
+
+        public long getFound() {
+            return this.found.sum();
+        }
+
+        public long getNotFound() {
+            return this.notFound.sum();
+        }
+
+        /**
+         * Return the number of queries that ran out of budget or were cancelled.
+         * */
+        public long getStopped() {
+            return this.stopped.sum();
+        }
+
+        public long getNodesExpanded() {
+            return this.nodesExpanded.sum();
+        }
+
+        public long getTotalEnqueues() {
+            return this.totalEnqueues.sum();
+        }
+
+        public long getOneAwayCalls() {
+            return this.oneAwayCalls.sum();
+        }
+
+        /**
+         * Return the largest frontier any query held at once.
+         * */
+        public long getPeakFrontier() {
+            return this.peakFrontier.get();
+        }
+
+        /**
+         * Return the wall time of the queries, from the start of the query to its result.
+         * */
+        public LatencyHistogram getLatency() {
+            return this.latency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Started %d Queries %d Found %d NotFound %d Stopped %d Expanded %d Enqueues %d OneAway %d "
+                            + "PeakFrontier %d Nanos [%s]",
+                    getStarted(), getQueries(), getFound(), getNotFound(), getStopped(), getNodesExpanded(),
+                    getTotalEnqueues(), getOneAwayCalls(), getPeakFrontier(), latency);
+        }
+
+        private final LongAdder started = new LongAdder();
+        private final LongAdder queries = new LongAdder();
+        private final LongAdder found = new LongAdder();
+        private final LongAdder notFound = new LongAdder();
+        private final LongAdder stopped = new LongAdder();
+        private final LongAdder nodesExpanded = new LongAdder();
+        private final LongAdder totalEnqueues = new LongAdder();
+        private final LongAdder oneAwayCalls = new LongAdder();
+        private final LongAccumulator peakFrontier = new LongAccumulator(Math::max, 0);
+        private final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    /**
+     * Return the statistics of an algorithm, which are all zero if it has not answered a query yet.
+     * */
+    public Counters get(String algorithm) {
+        return this.algorithms.computeIfAbsent(algorithm, name -> new Counters());
+    }
+
+    /**
+     * Return the statistics of every algorithm that answered a query, ordered by name.
+     * */
+    public Map<String, Counters> getAll() {
+        return new TreeMap<>(this.algorithms);
+    }
+
+    /**
+     * Count a query that an algorithm has started.
+     * */
+    public void recordStart(String algorithm) {
+        get(algorithm).started.increment();
+    }
+
+    /**
+     * Add a finished query to the statistics of its algorithm.
+     * */
+    public void record(String algorithm, LadderResult.Status status, int nodesExpanded, int totalEnqueues,
+                       int oneAwayCalls, int peakFrontier, long elapsedNanos) {
+        Counters counters = get(algorithm);
+        counters.queries.increment();
+        if (status == LadderResult.Status.FOUND) {
+            counters.found.increment();
+        }
+        else if (status == LadderResult.Status.NOT_FOUND) {
+            counters.notFound.increment();
+        }
+        else if (status == LadderResult.Status.BUDGET_EXCEEDED || status == LadderResult.Status.CANCELLED) {
+            counters.stopped.increment();
+        }
+        counters.nodesExpanded.add(nodesExpanded);
+        counters.totalEnqueues.add(totalEnqueues);
+        counters.oneAwayCalls.add(oneAwayCalls);
+        counters.peakFrontier.accumulate(peakFrontier);
+        counters.latency.record(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Counters> entry : getAll().entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(System.lineSeparator());
+            }
+            builder.append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final ConcurrentHashMap<String, Counters> algorithms = new ConcurrentHashMap<>();
+
+}
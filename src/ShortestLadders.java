@@ -0,0 +1,198 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Every shortest ladder between two words, kept as the layered graph that a breadth-first search leaves behind.
+ * Only words that lie on some shortest ladder are kept, and each one keeps a list of its predecessors: the words
+ * one move closer to the start word that it can be reached from. Every path that follows predecessors from the end
+ * word back to the start word is a shortest ladder, and every shortest ladder is such a path.
+ * There can be exponentially many ladders, so they are never stored: they are counted by dynamic programming over
+ * the layers, and handed out one at a time by an iterator that only remembers the ladder it is on.
+ * */
+public class ShortestLadders implements Iterable<int[]> {
+
+    /**
+     * Return the ladders of a query for two words that no ladder joins.
+     * */
+    public static ShortestLadders none(WordGraph graph) {
+        return new ShortestLadders(graph, -1, new int[0], new int[] { 0 }, new int[0]);
+    }
+
+    /**
+     * Constructor.
+     * Nodes are numbered by layer from the end word, which is node 0, back to the start word, which is the last node.
+     * The predecessors of node i are preds[predStart[i]] up to preds[predStart[i + 1]], and are all in the next layer.
+     * */
+    ShortestLadders(WordGraph graph, int moves, int[] words, int[] predStart, int[] preds) {
+        this.graph = graph;
+        this.moves = moves;
+        this.words = words;
+        this.predStart = predStart;
+        this.preds = preds;
+    }
+
+    /**
+     * Return true if no ladder joins the two words.
+     * */
+    public boolean isEmpty() {
+        return this.moves < 0;
+    }
+
+    /**
+     * Return the number of moves on each of the ladders, or -1 if there are none.
+     * */
+    public int getMoves() {
+        return this.moves;
+    }
+
+    /**
+     * Return the number of words that lie on at least one shortest ladder, including the start and end words.
+     * */
+    public int getWordCount() {
+        return this.words.length;
+    }
+
+    /**
+     * Return the number of shortest ladders.
+     * The count is kept in a long while it fits, and only redone with big integers if it overflows.
+     * */
+    public BigInteger count() {
+        if (isEmpty()) {
+            return BigInteger.ZERO;
+        }
+
+        // The number of paths from the start word to a node is the sum over its predecessors. Predecessors have
+        // larger node numbers, so visiting the nodes from the start word down to the end word sees them first.
+        int n = this.words.length;
+        try {
+            long[] paths = new long[n];
+            paths[n - 1] = 1;
+            for (int node = n - 2; node >= 0; node--) {
+                long sum = 0;
+                for (int i = this.predStart[node]; i < this.predStart[node + 1]; i++) {
+                    sum = Math.addExact(sum, paths[this.preds[i]]);
+                }
+                paths[node] = sum;
+            }
+            return BigInteger.valueOf(paths[0]);
+        }
+        catch (ArithmeticException ex) {
+            BigInteger[] paths = new BigInteger[n];
+            paths[n - 1] = BigInteger.ONE;
+            for (int node = n - 2; node >= 0; node--) {
+                BigInteger sum = BigInteger.ZERO;
+                for (int i = this.predStart[node]; i < this.predStart[node + 1]; i++) {
+                    sum = sum.add(paths[this.preds[i]]);
+                }
+                paths[node] = sum;
+            }
+            return paths[0];
+        }
+    }
+
+    /**
+     * Return an iterator over the ladders, each given as word IDs from the start word to the end word.
+     * Each call to next builds one ladder, so any number of ladders can be streamed in memory for one.
+     * If the start and end words are the same, the one ladder lists the word twice, as solve does.
+     * */
+    @Override
+    public Iterator<int[]> iterator() {
+        return new LadderIterator();
+    }
+
+    /**
+     * Return a ladder as words.
+     * */
+    public List<String> toWords(int[] ladder) {
+        List<String> words = new ArrayList<>(ladder.length);
+        for (int id : ladder) {
+            words.add(this.graph.word(id));
+        }
+        return words;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final WordGraph graph;
+    private final int moves;
+    private final int[] words;          // Word ID of each node
+    private final int[] predStart;      // Where each node's predecessors start in preds
+    private final int[] preds;          // Node numbers of the predecessors of every node
+
+    /**
+     * Walks the ladders depth first from the end word. Position k of the current ladder holds a node of layer k,
+     * and choice[k] is which of the predecessors of the node at position k + 1 it is. Every predecessor leads back
+     * to the start word, so every walk down the layers ends in a ladder and none are wasted.
+     * */
+    private class LadderIterator implements Iterator<int[]> {
+        private final int[] path;
+        private final int[] choice;
+        private boolean hasNext;
+
+        LadderIterator() {
+            int length = Math.max(moves, 0) + 1;
+            this.path = new int[length];
+            this.choice = new int[length];
+            this.hasNext = !isEmpty();
+            if (this.hasNext) {
+                this.path[length - 1] = 0;
+                descend(length - 1);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.hasNext;
+        }
+
+        @Override
+        public int[] next() {
+            if (!this.hasNext) {
+                throw new NoSuchElementException("There are no more ladders.");
+            }
+
+            int[] ladder;
+            if (moves == 0) {
+                ladder = new int[] { words[0], words[0] };
+            }
+            else {
+                ladder = new int[this.path.length];
+                for (int k = 0; k < ladder.length; k++) {
+                    ladder[k] = words[this.path[k]];
+                }
+            }
+            advance();
+            return ladder;
+        }
+
+        /**
+         * Fill the positions below the given one with the first predecessor at each step.
+         * */
+        private void descend(int from) {
+            for (int k = from - 1; k >= 0; k--) {
+                this.choice[k] = predStart[this.path[k + 1]];
+                this.path[k] = preds[this.choice[k]];
+            }
+        }
+
+        /**
+         * Move to the next ladder: take the next predecessor at the lowest position that has one left,
+         * and start over below it.
+         * */
+        private void advance() {
+            for (int k = 0; k < this.path.length - 1; k++) {
+                if (this.choice[k] + 1 < predStart[this.path[k + 1] + 1]) {
+                    this.choice[k]++;
+                    this.path[k] = preds[this.choice[k]];
+                    descend(k);
+                    return;
+                }
+            }
+            this.hasNext = false;
+        }
+    }
+
+}
@@ -0,0 +1,1045 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * The dictionary as a graph where every word has an int ID and an edge joins words that are one letter apart.
+ * Words of the same length get consecutive IDs in sorted order, and the adjacency is stored in CSR form:
+ * the neighbors of word i are targets[offsets[i]] up to targets[offsets[i + 1]].
+ * The graph can be written to a binary snapshot that later processes map into memory instead of rebuilding it.
+ *
+ * A graph never changes once built. Adding or removing a word returns a new version that shares the arrays of the
+ * one it came from and lays the changes over them: added words get IDs after the last built word, removed words keep
+ * their ID but lose their edges, and words whose neighbors changed have their adjacency rewritten into a log that
+ * the versions share. Queries that hold an older version keep seeing exactly the words it had.
+ * Since added words do not fit in the consecutive ID range of their length, search arrays are indexed by slot,
+ * which numbers the words of one length from zero: first the words the graph was built with, then the added ones.
+ * */
+public class WordGraph {
+
+    // PUBLIC MEMBERS --------------------------------------------------------------------------------------------------
+
+    /**
+     * Bump this whenever the snapshot layout changes so that old snapshots are rebuilt.
+     * */
+    public static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * Load the graph for a dictionary file.
+     * Use the snapshot next to the dictionary if it is valid and was built from the same dictionary.
+     * Otherwise build the graph from the dictionary and write a fresh snapshot for the next process.
+     * */
+    public static WordGraph open(String dictionaryFile) {
+        Path dictionaryPath = Path.of(dictionaryFile);
+        Path snapshotPath = snapshotPathFor(dictionaryFile);
+
+        try {
+            long dictionaryChecksum = checksum(dictionaryPath);
+            if (Files.exists(snapshotPath)) {
+                try {
+                    WordGraph graph = load(snapshotPath);
+                    if (graph.dictionaryChecksum == dictionaryChecksum) {
+                        return graph;
+                    }
+                }
+                catch (IOException ex) {
+                    System.out.println("Rebuilding word graph, the snapshot could not be used: " + ex.getMessage());
+                }
+            }
+
+            WordGraph graph = build(readDictionary(dictionaryFile), dictionaryChecksum);
+            try {
+                graph.writeSnapshot(snapshotPath);
+            }
+            catch (IOException ex) {
+                System.out.println("An error occurred trying to write the word graph snapshot: " + ex);
+            }
+            return graph;
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("An error occurred trying to read the dictionary: " + dictionaryFile, ex);
+        }
+    }
+
+    /**
+     * Build the graph from a dictionary whose index corresponds to word length.
+     * */
+    public static WordGraph build(ArrayList<ArrayList<String>> dictionary, long dictionaryChecksum) {
+
+        // Sort every length bucket so words of the same length get consecutive IDs in sorted order
+        ArrayList<ArrayList<String>> sorted = new ArrayList<>();
+        for (ArrayList<String> wordsOfSameLength : dictionary) {
+            ArrayList<String> copy = new ArrayList<>(wordsOfSameLength);
+            Collections.sort(copy);
+            sorted.add(copy);
+        }
+
+        int maxLength = Math.max(sorted.size() - 1, 0);
+        int[] lengthStart = new int[maxLength + 2];
+        int wordCount = 0;
+        int charCount = 0;
+        for (int length = 0; length <= maxLength; length++) {
+            lengthStart[length] = wordCount;
+            if (length < sorted.size()) {
+                wordCount += sorted.get(length).size();
+                charCount += length * sorted.get(length).size();
+            }
+        }
+        lengthStart[maxLength + 1] = wordCount;
+
+        // Lay the words out back to back, in ID order
+        int[] wordOffsets = new int[wordCount + 1];
+        char[] chars = new char[charCount];
+        int id = 0;
+        int charPosition = 0;
+        for (ArrayList<String> wordsOfSameLength : sorted) {
+            for (String word : wordsOfSameLength) {
+                wordOffsets[id++] = charPosition;
+                word.getChars(0, word.length(), chars, charPosition);
+                charPosition += word.length();
+            }
+        }
+        wordOffsets[wordCount] = charPosition;
+
+        // Neighbors come back in dictionary order, which is also ID order
+        NeighborIndex neighborIndex = new NeighborIndex(sorted);
+        int[] offsets = new int[wordCount + 1];
+        int[] targets = new int[16];
+        int edgeCount = 0;
+        id = 0;
+        for (int length = 0; length < sorted.size(); length++) {
+            for (String word : sorted.get(length)) {
+                offsets[id++] = edgeCount;
+                for (String neighbor : neighborIndex.neighbors(word)) {
+                    if (edgeCount == targets.length) {
+                        targets = Arrays.copyOf(targets, targets.length * 2);
+                    }
+                    targets[edgeCount++] = lengthStart[length] + neighborIndex.position(neighbor);
+                }
+            }
+        }
+        offsets[wordCount] = edgeCount;
+
+        return new WordGraph(wordCount, edgeCount, maxLength, dictionaryChecksum,
+                IntBuffer.wrap(lengthStart), IntBuffer.wrap(wordOffsets),
+                IntBuffer.wrap(offsets), IntBuffer.wrap(targets, 0, edgeCount).slice(), CharBuffer.wrap(chars));
+    }
+
+    /**
+     * Map a snapshot written by writeSnapshot into memory.
+     * The version and checksum are verified before the graph is handed out.
+     * */
+    public static WordGraph load(Path snapshot) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a word graph snapshot: " + snapshot);
+        }
+        if (buffer.getInt(4) != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported word graph snapshot version " + buffer.getInt(4));
+        }
+
+        int wordCount = buffer.getInt(8);
+        int edgeCount = buffer.getInt(12);
+        int maxLength = buffer.getInt(16);
+        int charCount = buffer.getInt(20);
+        long dictionaryChecksum = buffer.getLong(24);
+        long payloadChecksum = buffer.getLong(32);
+
+        long expectedBytes = HEADER_BYTES + 4L * ((maxLength + 2) + 2L * (wordCount + 1) + edgeCount) + 2L * charCount;
+        if (buffer.limit() != expectedBytes) {
+            throw new IOException("Word graph snapshot is truncated: " + snapshot);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_BYTES, buffer.limit() - HEADER_BYTES));
+        if (crc.getValue() != payloadChecksum) {
+            throw new IOException("Word graph snapshot checksum mismatch: " + snapshot);
+        }
+
+        int position = HEADER_BYTES;
+        IntBuffer lengthStart = intSection(buffer, position, maxLength + 2);
+        position += 4 * (maxLength + 2);
+        IntBuffer wordOffsets = intSection(buffer, position, wordCount + 1);
+        position += 4 * (wordCount + 1);
+        IntBuffer offsets = intSection(buffer, position, wordCount + 1);
+        position += 4 * (wordCount + 1);
+        IntBuffer targets = intSection(buffer, position, edgeCount);
+        position += 4 * edgeCount;
+        CharBuffer chars = buffer.slice(position, 2 * charCount).order(ByteOrder.LITTLE_ENDIAN).asCharBuffer();
+
+        return new WordGraph(wordCount, edgeCount, maxLength, dictionaryChecksum,
+                lengthStart, wordOffsets, offsets, targets, chars);
+    }
+
+    /**
+     * Write the graph to a binary snapshot.
+     * The file is written next to its final location and moved into place, so readers never see half a snapshot.
+     * */
+    public void writeSnapshot(Path snapshot) throws IOException {
+        if (this.changes != null) {
+            compact().writeSnapshot(snapshot);
+            return;
+        }
+
+        int payloadBytes = 4 * ((this.maxLength + 2) + 2 * (this.wordCount + 1) + this.edgeCount) + 2 * this.charCount();
+        ByteBuffer payload = ByteBuffer.allocate(payloadBytes).order(ByteOrder.LITTLE_ENDIAN);
+        putInts(payload, this.lengthStart);
+        putInts(payload, this.wordOffsets);
+        putInts(payload, this.offsets);
+        putInts(payload, this.targets);
+        for (int i = 0; i < this.chars.limit(); i++) {
+            payload.putChar(this.chars.get(i));
+        }
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+                .putInt(SNAPSHOT_VERSION)
+                .putInt(this.wordCount)
+                .putInt(this.edgeCount)
+                .putInt(this.maxLength)
+                .putInt(this.charCount())
+                .putLong(this.dictionaryChecksum)
+                .putLong(crc.getValue())
+                .flip();
+
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Return where the snapshot for a dictionary file lives.
+     * */
+    public static Path snapshotPathFor(String dictionaryFile) {
+        return Path.of(dictionaryFile + ".graph");
+    }
+
+    /**
+     * Return a version of the graph with the word added, or this graph if the word is already in it.
+     * Only the word's own neighbors are touched: they are found by trying every other letter in every position,
+     * and each of them gets the word added to its adjacency.
+     * */
+    public WordGraph withWord(String word) {
+        if (word.isEmpty()) {
+            throw new IllegalArgumentException("Only words with at least one letter can be added.");
+        }
+        if (id(word) >= 0) {
+            return this;
+        }
+
+        Changes next = this.changes == null ? new Changes(this) : this.changes.copy();
+        int length = word.length();
+        next.grow(length);
+
+        // A word that was removed before comes back with its old ID, so its slot stays the same
+        int id = baseId(word);
+        if (id < 0) {
+            id = next.addedId(word);
+        }
+        if (id >= 0) {
+            next.removed.set(id, 0);
+        }
+        else {
+            id = next.add(word);
+        }
+        for (int i = 0; i < length; i++) {
+            next.alphabet.add(word.charAt(i));
+        }
+
+        int[] neighbors = findNeighbors(word, next.alphabet);
+        next.patch(id, neighbors, neighbors.length);
+        for (int neighbor : neighbors) {
+            int[] adjacency = new int[degree(neighbor) + 1];
+            int count = 0;
+            for (int i = neighborStart(neighbor); i < neighborEnd(neighbor); i++) {
+                adjacency[count++] = neighbor(i);
+            }
+            adjacency[count++] = id;
+            Arrays.sort(adjacency);
+            next.patch(neighbor, adjacency, count);
+        }
+
+        next.wordCounts[length]++;
+        next.changed(length);
+        return new WordGraph(this, next, this.components.withWord(id, length, neighbors));
+    }
+
+    /**
+     * Return a version of the graph with the word removed, or this graph if the word is not in it.
+     * Only the word's own neighbors are touched; each of them gets the word removed from its adjacency.
+     * */
+    public WordGraph withoutWord(String word) {
+        int id = id(word);
+        if (id < 0) {
+            return this;
+        }
+
+        Changes next = this.changes == null ? new Changes(this) : this.changes.copy();
+        int length = word.length();
+
+        for (int i = neighborStart(id); i < neighborEnd(id); i++) {
+            int neighbor = neighbor(i);
+            int[] adjacency = new int[degree(neighbor)];
+            int count = 0;
+            for (int j = neighborStart(neighbor); j < neighborEnd(neighbor); j++) {
+                if (neighbor(j) != id) {
+                    adjacency[count++] = neighbor(j);
+                }
+            }
+            next.patch(neighbor, adjacency, count);
+        }
+        next.patch(id, new int[0], 0);
+        next.removed.set(id, 1);
+
+        next.wordCounts[length]--;
+        next.changed(length);
+        return new WordGraph(this, next, this.components.withoutWord(id, length));
+    }
+
+    /**
+     * Return a graph with the same words that has all changes built into fresh arrays, or this graph if it has none.
+     * This costs as much as building the graph from a dictionary, so it is only worth doing once changes pile up.
+     * */
+    public WordGraph compact() {
+        if (this.changes == null) {
+            return this;
+        }
+
+        ArrayList<ArrayList<String>> dictionary = new ArrayList<>();
+        for (int length = 0; length <= maxLength(); length++) {
+            ArrayList<String> words = new ArrayList<>(wordCount(length));
+            for (int slot = 0; slot < slotCount(length); slot++) {
+                int id = idAtSlot(length, slot);
+                if (contains(id)) {
+                    words.add(word(id));
+                }
+            }
+            dictionary.add(words);
+        }
+        return build(dictionary, 0L);
+    }
+
+    /**
+     * Return the number of words added or removed since the graph was built or loaded.
+     * */
+    public int changeCount() {
+        return this.changes == null ? 0 : this.changes.changeCount;
+    }
+
+    /**
+     * Return true if the words of the given length, and so their IDs and edges, are the same as in another version.
+     * Indexes built for one version can keep serving a length that this holds for.
+     * */
+    public boolean sameWordsAs(WordGraph other, int length) {
+        return base() == other.base() && lengthStamp(length) == other.lengthStamp(length);
+    }
+
+    /**
+     * Return the number of word IDs in use; IDs run from zero to one less than this.
+     * Removed words keep their ID, so this can be more than the number of words.
+     * */
+    public int size() {
+        return this.changes == null ? this.wordCount : this.wordCount + this.changes.addedCount;
+    }
+
+    /**
+     * Return the length of the longest word in the graph.
+     * */
+    public int maxLength() {
+        return this.changes == null ? this.maxLength : this.changes.maxLength;
+    }
+
+    /**
+     * Return true if the word with the given ID is in this version of the graph.
+     * */
+    public boolean contains(int id) {
+        return id >= 0 && id < size() && (this.changes == null || this.changes.removed.get(id) == 0);
+    }
+
+    /**
+     * Return the number of words with the given length.
+     * */
+    public int wordCount(int length) {
+        if (this.changes == null) {
+            return endIdOfLength(length) - firstIdOfLength(length);
+        }
+        return length >= 0 && length < this.changes.wordCounts.length ? this.changes.wordCounts[length] : 0;
+    }
+
+    /**
+     * Return the number of slots of the given length, which is the size a search array for that length needs.
+     * */
+    public int slotCount(int length) {
+        int count = endIdOfLength(length) - firstIdOfLength(length);
+        if (this.changes != null && length >= 0 && length < this.changes.addedCounts.length) {
+            count += this.changes.addedCounts[length];
+        }
+        return count;
+    }
+
+    /**
+     * Return the slot of a word among the words of its length.
+     * */
+    public int slot(int id) {
+        if (id >= this.wordCount) {
+            return this.changes.added.slot(id - this.wordCount);
+        }
+        return id - this.lengthStart.get(this.wordLength(id));
+    }
+
+    /**
+     * Return the ID of the word in the given slot of the given length.
+     * */
+    public int idAtSlot(int length, int slot) {
+        int first = firstIdOfLength(length);
+        int builtCount = endIdOfLength(length) - first;
+        return slot < builtCount ? first + slot : this.wordCount + this.changes.added.ofLength(length, slot - builtCount);
+    }
+
+    /**
+     * Return the first ID of the words with the given length that the graph was built with.
+     * */
+    public int firstIdOfLength(int length) {
+        return this.lengthStart.get(Math.min(Math.max(length, 0), this.maxLength + 1));
+    }
+
+    /**
+     * Return one past the last ID of the words with the given length that the graph was built with.
+     * Words added later have IDs outside this range; use the slots to visit every word of a length.
+     * */
+    public int endIdOfLength(int length) {
+        return this.lengthStart.get(Math.min(Math.max(length + 1, 0), this.maxLength + 1));
+    }
+
+    /**
+     * Return the word with the given ID.
+     * */
+    public String word(int id) {
+        if (id >= this.wordCount) {
+            return this.changes.added.word(id - this.wordCount);
+        }
+        int start = this.wordOffsets.get(id);
+        int end = this.wordOffsets.get(id + 1);
+        return this.chars.subSequence(start, end).toString();
+    }
+
+    /**
+     * Return the length of the word with the given ID.
+     * */
+    public int length(int id) {
+        if (id >= this.wordCount) {
+            return this.changes.added.word(id - this.wordCount).length();
+        }
+        return wordLength(id);
+    }
+
+    /**
+     * Return the letter at the given position of the word with the given ID.
+     * */
+    public char charAt(int id, int index) {
+        if (id >= this.wordCount) {
+            return this.changes.added.word(id - this.wordCount).charAt(index);
+        }
+        return this.chars.get(this.wordOffsets.get(id) + index);
+    }
+
+    /**
+     * Return the ID of a word, or -1 if the word is not in the dictionary.
+     * Built words are found in a hash table and added words in a hash map, so this takes constant time.
+     * */
+    public int id(String word) {
+        int id = baseId(word);
+        if (this.changes == null) {
+            return id;
+        }
+        if (id < 0) {
+            id = this.changes.addedId(word);
+        }
+        return id < 0 || this.changes.removed.get(id) != 0 ? -1 : id;
+    }
+
+    /**
+     * Return the index into the targets of the first neighbor of a word.
+     * */
+    public int neighborStart(int id) {
+        if (this.changes != null) {
+            int position = this.changes.patched.get(id) - 1;
+            if (position >= 0) {
+                return this.edgeCount + position + 1;
+            }
+        }
+        return this.offsets.get(id);
+    }
+
+    /**
+     * Return the index into the targets one past the last neighbor of a word.
+     * */
+    public int neighborEnd(int id) {
+        if (this.changes != null) {
+            int position = this.changes.patched.get(id) - 1;
+            if (position >= 0) {
+                return this.edgeCount + position + 1 + this.changes.log.get(position);
+            }
+        }
+        return this.offsets.get(id + 1);
+    }
+
+    /**
+     * Return the neighbor stored at the given index into the targets.
+     * */
+    public int neighbor(int index) {
+        if (index >= this.edgeCount) {
+            return this.changes.log.get(index - this.edgeCount);
+        }
+        return this.targets.get(index);
+    }
+
+    /**
+     * Return the number of neighbors of a word.
+     * */
+    public int degree(int id) {
+        return neighborEnd(id) - neighborStart(id);
+    }
+
+    /**
+     * Return the total number of neighbors of the words with the given length, which counts each edge twice.
+     * */
+    public long degreeSum(int length) {
+        if (this.changes == null) {
+            return this.offsets.get(endIdOfLength(length)) - this.offsets.get(firstIdOfLength(length));
+        }
+        long sum = 0;
+        for (int slot = 0; slot < slotCount(length); slot++) {
+            sum += degree(idAtSlot(length, slot));
+        }
+        return sum;
+    }
+
+    /**
+     * Find how many characters are different between two words of the same length.
+     * */
+    public int diff(int id1, int id2) {
+        if (id1 >= this.wordCount || id2 >= this.wordCount) {
+            String word1 = word(id1);
+            String word2 = word(id2);
+            int count = 0;
+            for (int i = 0; i < word1.length(); i++) {
+                if (word1.charAt(i) != word2.charAt(i)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        int start1 = this.wordOffsets.get(id1);
+        int start2 = this.wordOffsets.get(id2);
+        int length = length(id1);
+        assert length == length(id2);
+
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (this.chars.get(start1 + i) != this.chars.get(start2 + i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Return the checksum of the dictionary file the graph was built from,
+     * or 0 if words were added or removed since.
+     * */
+    public long dictionaryChecksum() {
+        return this.changes == null ? this.dictionaryChecksum : 0L;
+    }
+
+    /**
+     * Return the connected components of the graph, which are found once when the graph is loaded.
+     * */
+    public ComponentIndex components() {
+        return this.components;
+    }
+
+    /**
+     * Return the index of the words one inserted or deleted letter apart.
+     * It is built for the graph as it was built or loaded the first time any version asks for it,
+     * and every version made from that graph shares it.
+     * */
+    public EditIndex edits() {
+        WordGraph base = base();
+        EditIndex edits = base.edits;
+        if (edits == null) {
+            synchronized (base) {
+                edits = base.edits;
+                if (edits == null) {
+                    edits = new EditIndex(base);
+                    base.edits = edits;
+                }
+            }
+        }
+        return edits;
+    }
+
+    /**
+     * Return the IDs of the words added since the graph was built that deleting one letter turns into the given word,
+     * among the words this version contains, in ID order.
+     * Added words are indexed under their deletions as they are added, so this costs one lookup however many there are.
+     * */
+    public int[] addedWithDeletion(String word) {
+        if (this.changes == null) {
+            return new int[0];
+        }
+        int[] positions = this.changes.added.withDeletion(word);
+        int[] ids = new int[positions.length];
+        int count = 0;
+        for (int position : positions) {
+            int id = this.wordCount + position;
+            if (position < this.changes.addedCount && contains(id)) {
+                ids[count++] = id;
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Read a list of words from a file and put all words of the same length into the same array.
+     * The index into the returned list corresponds to word length.
+     * Words are lowercased, and blank lines and repeated words are dropped.
+     * */
+    public static ArrayList<ArrayList<String>> readDictionary(String dictionaryFile) throws IOException {
+        return DictionaryLoader.load(Path.of(dictionaryFile));
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private static final int MAGIC = 0x574c4731;    // "WLG1"
+    private static final int HEADER_BYTES = 40;
+
+    private final int wordCount;
+    private final int edgeCount;
+    private final int maxLength;
+    private final long dictionaryChecksum;
+    private final IntBuffer lengthStart;
+    private final IntBuffer wordOffsets;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final CharBuffer chars;
+    private final WordIndex wordIndex;
+    private final ComponentIndex components;
+    private final Changes changes;      // Words added and removed since the graph was built, or null if none
+    private volatile EditIndex edits;   // Built on first use, and only ever set on the graph as it was built
+
+    private static final AtomicLong STAMPS = new AtomicLong();
+
+    private WordGraph(int wordCount, int edgeCount, int maxLength, long dictionaryChecksum,
+                      IntBuffer lengthStart, IntBuffer wordOffsets, IntBuffer offsets, IntBuffer targets,
+                      CharBuffer chars) {
+        this.wordCount = wordCount;
+        this.edgeCount = edgeCount;
+        this.maxLength = maxLength;
+        this.dictionaryChecksum = dictionaryChecksum;
+        this.lengthStart = lengthStart;
+        this.wordOffsets = wordOffsets;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.chars = chars;
+        this.wordIndex = new WordIndex(chars, wordOffsets, wordCount);
+        this.components = new ComponentIndex(this);
+        this.changes = null;
+    }
+
+    /**
+     * Constructor for a new version of a graph, sharing its arrays.
+     * */
+    private WordGraph(WordGraph previous, Changes changes, ComponentIndex components) {
+        this.wordCount = previous.wordCount;
+        this.edgeCount = previous.edgeCount;
+        this.maxLength = previous.maxLength;
+        this.dictionaryChecksum = previous.dictionaryChecksum;
+        this.lengthStart = previous.lengthStart;
+        this.wordOffsets = previous.wordOffsets;
+        this.offsets = previous.offsets;
+        this.targets = previous.targets;
+        this.chars = previous.chars;
+        this.wordIndex = previous.wordIndex;
+        this.components = components;
+        this.changes = changes;
+    }
+
+    /**
+     * Words added and removed since a graph was built, laid over its arrays.
+     * Each version has its own copy of these tables, but the copies share everything they did not change:
+     * the per-word tables are paged, and the added words and the adjacency lists of changed words go into logs
+     * that every version shares and only appends to. A version only reads the log entries it made or inherited.
+     * */
+    private static final class Changes {
+        WordGraph base;                     // The graph as it was built or loaded
+        int changeCount;
+        int maxLength;
+        AddedWords added;
+        int addedCount;                     // Added words this version can see
+        int[] addedCounts;                  // Added words of each length this version can see
+        int[] wordCounts;                   // Number of words of each length
+        long[] lengthStamps;                // Changes when the words of a length change; 0 while they are as built
+        PagedIntArray patched;              // One more than the log position of each word whose adjacency changed
+        PagedIntArray removed;              // 1 for every removed word
+        TreeSet<Character> alphabet;        // Every letter used, tried in each position to find a word's neighbors
+        AdjacencyLog log;
+        int logSize;                        // Entries of the log that belong to this version
+
+        /**
+         * Constructor for the first change to a built graph.
+         * */
+        Changes(WordGraph base) {
+            this.base = base;
+            this.maxLength = base.maxLength;
+            this.added = new AddedWords();
+            this.addedCounts = new int[base.maxLength + 1];
+            this.wordCounts = new int[base.maxLength + 1];
+            for (int length = 0; length <= base.maxLength; length++) {
+                this.wordCounts[length] = base.endIdOfLength(length) - base.firstIdOfLength(length);
+            }
+            this.lengthStamps = new long[base.maxLength + 1];
+            this.patched = new PagedIntArray();
+            this.removed = new PagedIntArray();
+            this.alphabet = new TreeSet<>();
+            for (int i = 0; i < base.chars.limit(); i++) {
+                this.alphabet.add(base.chars.get(i));
+            }
+            this.log = new AdjacencyLog();
+        }
+
+        private Changes() {
+        }
+
+        Changes copy() {
+            Changes copy = new Changes();
+            copy.base = this.base;
+            copy.changeCount = this.changeCount;
+            copy.maxLength = this.maxLength;
+            copy.added = this.added;
+            copy.addedCount = this.addedCount;
+            copy.addedCounts = this.addedCounts.clone();
+            copy.wordCounts = this.wordCounts.clone();
+            copy.lengthStamps = this.lengthStamps.clone();
+            copy.patched = this.patched.copy();
+            copy.removed = this.removed.copy();
+            copy.alphabet = new TreeSet<>(this.alphabet);
+            copy.log = this.log;
+            copy.logSize = this.logSize;
+            return copy;
+        }
+
+        /**
+         * Make room for words of the given length.
+         * */
+        void grow(int length) {
+            if (length <= this.maxLength) {
+                return;
+            }
+            this.addedCounts = Arrays.copyOf(this.addedCounts, length + 1);
+            this.wordCounts = Arrays.copyOf(this.wordCounts, length + 1);
+            this.lengthStamps = Arrays.copyOf(this.lengthStamps, length + 1);
+            this.maxLength = length;
+        }
+
+        /**
+         * Return the ID of a word added in this version or before, or -1 if there is none.
+         * */
+        int addedId(String word) {
+            int index = this.added.index(word);
+            return index >= 0 && index < this.addedCount ? this.base.wordCount + index : -1;
+        }
+
+        /**
+         * Give a new word the next ID and the next slot of its length, and return the ID.
+         * */
+        int add(String word) {
+            int length = word.length();
+            int slot = this.base.endIdOfLength(length) - this.base.firstIdOfLength(length) + this.addedCounts[length];
+            if (!this.added.append(this.addedCount, word, slot)) {
+                // Another version already added words past this one, so continue in a log of our own
+                this.added = this.added.copy(this.addedCount);
+                this.added.append(this.addedCount, word, slot);
+            }
+            this.addedCounts[length]++;
+            return this.base.wordCount + this.addedCount++;
+        }
+
+        /**
+         * Give a word a new adjacency list.
+         * */
+        void patch(int id, int[] neighbors, int count) {
+            int position = this.log.append(this.logSize, neighbors, count);
+            if (position < 0) {
+                this.log = this.log.copy(this.logSize);
+                position = this.log.append(this.logSize, neighbors, count);
+            }
+            this.logSize = position + 1 + count;
+            this.patched.set(id, position + 1);
+        }
+
+        /**
+         * Record that the words of the given length changed.
+         * */
+        void changed(int length) {
+            this.lengthStamps[length] = STAMPS.incrementAndGet();
+            this.changeCount++;
+        }
+    }
+
+    /**
+     * The words added to a graph, in ID order, with the slot of each among the words of its length.
+     * */
+    private static final class AddedWords {
+        private static final int[] NO_POSITIONS = new int[0];
+
+        private volatile String[] words = new String[16];
+        private volatile int[] slots = new int[16];
+        private volatile int[][] ofLength = new int[0][];   // Positions of the words of each length, in slot order
+        private final ConcurrentHashMap<String, Integer> indexes = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, int[]> deletions = new ConcurrentHashMap<>();  // Positions by deletion
+        private int size;
+        private int[] lengthSizes = new int[0];
+
+        String word(int index) {
+            return this.words[index];
+        }
+
+        int slot(int index) {
+            return this.slots[index];
+        }
+
+        int ofLength(int length, int position) {
+            return this.ofLength[length][position];
+        }
+
+        /**
+         * Return the position of a word in the log, or -1 if it is not there.
+         * */
+        int index(String word) {
+            return this.indexes.getOrDefault(word, -1);
+        }
+
+        /**
+         * Return the positions of the words in the log that deleting one letter turns into the given word, in order.
+         * */
+        int[] withDeletion(String word) {
+            return this.deletions.getOrDefault(word, NO_POSITIONS);
+        }
+
+        /**
+         * Append a word after the given number of words, or return false if the log already holds more than that.
+         * */
+        synchronized boolean append(int after, String word, int slot) {
+            if (this.size != after) {
+                return false;
+            }
+            String[] grownWords = this.words;
+            int[] grownSlots = this.slots;
+            if (this.size == grownWords.length) {
+                grownWords = Arrays.copyOf(grownWords, this.size * 2);
+                grownSlots = Arrays.copyOf(grownSlots, this.size * 2);
+            }
+            grownWords[this.size] = word;
+            grownSlots[this.size] = slot;
+            this.words = grownWords;
+            this.slots = grownSlots;
+
+            int length = word.length();
+            int[][] grownOfLength = this.ofLength;
+            if (length >= grownOfLength.length) {
+                grownOfLength = Arrays.copyOf(grownOfLength, length + 1);
+                this.lengthSizes = Arrays.copyOf(this.lengthSizes, length + 1);
+            }
+            int[] positions = grownOfLength[length] == null ? new int[4] : grownOfLength[length];
+            int count = this.lengthSizes[length]++;
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count] = this.size;
+            grownOfLength[length] = positions;
+            this.ofLength = grownOfLength;
+
+            this.indexes.put(word, this.size);
+
+            // Deleting any letter of a run of equal letters leaves the same word, so only delete the first
+            for (int i = 0; i < length; i++) {
+                if (i > 0 && word.charAt(i) == word.charAt(i - 1)) {
+                    continue;
+                }
+                String deletion = word.substring(0, i) + word.substring(i + 1);
+                int[] existing = this.deletions.getOrDefault(deletion, NO_POSITIONS);
+                int[] grown = Arrays.copyOf(existing, existing.length + 1);
+                grown[existing.length] = this.size;
+                this.deletions.put(deletion, grown);
+            }
+            this.size++;
+            return true;
+        }
+
+        /**
+         * Return a new log holding the first words of this one.
+         * */
+        synchronized AddedWords copy(int size) {
+            AddedWords copy = new AddedWords();
+            for (int i = 0; i < size; i++) {
+                copy.append(i, this.words[i], this.slots[i]);
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * The adjacency lists of changed words, each stored as its length followed by its neighbors.
+     * */
+    private static final class AdjacencyLog {
+        private volatile int[] entries = new int[256];
+        private int size;
+
+        int get(int index) {
+            return this.entries[index];
+        }
+
+        /**
+         * Append a list after the given number of entries and return where it starts,
+         * or -1 if the log already holds more entries than that.
+         * */
+        synchronized int append(int after, int[] neighbors, int count) {
+            if (this.size != after) {
+                return -1;
+            }
+            int[] grown = this.entries;
+            if (this.size + 1 + count > grown.length) {
+                grown = Arrays.copyOf(grown, Math.max(grown.length * 2, this.size + 1 + count));
+            }
+            grown[this.size] = count;
+            System.arraycopy(neighbors, 0, grown, this.size + 1, count);
+            this.entries = grown;
+            int position = this.size;
+            this.size += 1 + count;
+            return position;
+        }
+
+        /**
+         * Return a new log holding the first entries of this one.
+         * */
+        synchronized AdjacencyLog copy(int size) {
+            AdjacencyLog copy = new AdjacencyLog();
+            copy.entries = Arrays.copyOf(this.entries, Math.max(size * 2, 256));
+            copy.size = size;
+            return copy;
+        }
+    }
+
+    private WordGraph base() {
+        return this.changes == null ? this : this.changes.base;
+    }
+
+    private long lengthStamp(int length) {
+        if (this.changes == null || length < 0 || length >= this.changes.lengthStamps.length) {
+            return 0L;
+        }
+        return this.changes.lengthStamps[length];
+    }
+
+    /**
+     * Return the length of a word the graph was built with.
+     * */
+    private int wordLength(int id) {
+        return this.wordOffsets.get(id + 1) - this.wordOffsets.get(id);
+    }
+
+    /**
+     * Return the ID of a word among the words the graph was built with, or -1 if it is not one of them.
+     * */
+    private int baseId(String word) {
+        return this.wordIndex.find(word);
+    }
+
+    /**
+     * Return the IDs of the words in this version that are one letter off from the given word, in ID order.
+     * */
+    private int[] findNeighbors(String word, TreeSet<Character> alphabet) {
+        int[] neighbors = new int[16];
+        int count = 0;
+        char[] candidate = word.toCharArray();
+        for (int i = 0; i < candidate.length; i++) {
+            char original = candidate[i];
+            for (char letter : alphabet) {
+                if (letter == original) {
+                    continue;
+                }
+                candidate[i] = letter;
+                int id = id(new String(candidate));
+                if (id >= 0) {
+                    if (count == neighbors.length) {
+                        neighbors = Arrays.copyOf(neighbors, count * 2);
+                    }
+                    neighbors[count++] = id;
+                }
+            }
+            candidate[i] = original;
+        }
+        neighbors = Arrays.copyOf(neighbors, count);
+        Arrays.sort(neighbors);
+        return neighbors;
+    }
+
+    private int charCount() {
+        return this.chars.limit();
+    }
+
+    private static IntBuffer intSection(ByteBuffer buffer, int position, int count) {
+        return buffer.slice(position, 4 * count).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static void putInts(ByteBuffer payload, IntBuffer values) {
+        for (int i = 0; i < values.limit(); i++) {
+            payload.putInt(values.get(i));
+        }
+    }
+
+    /**
+     * Compute a checksum of the dictionary file so a snapshot can tell whether it is stale.
+     * */
+    private static long checksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file));
+        return crc.getValue();
+    }
+
+}
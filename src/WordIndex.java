@@ -0,0 +1,90 @@
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * An open-addressing hash table from the words a graph was built with to their IDs.
+ * A word is found with one hash of its letters, which String caches, and usually one comparison against the letters
+ * stored in the graph, instead of a binary search through every word of its length.
+ * The table is at least twice as large as the number of words and is probed linearly. Each entry keeps the full hash
+ * of its word beside it, so a probe only compares letters when the hashes already match.
+ * */
+public class WordIndex {
+
+    /**
+     * Constructor.
+     * Hash every word of a graph whose words are laid out back to back in chars, starting at wordOffsets.
+     * */
+    WordIndex(CharBuffer chars, IntBuffer wordOffsets, int wordCount) {
+        this.chars = chars;
+        this.wordOffsets = wordOffsets;
+
+        int capacity = Integer.highestOneBit(Math.max(wordCount, 1)) << 2;
+        this.ids = new int[capacity];
+        this.hashes = new int[capacity];
+        int mask = capacity - 1;
+
+        for (int id = 0; id < wordCount; id++) {
+            int hash = hash(id);
+            int i = spread(hash) & mask;
+            while (this.ids[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            this.ids[i] = id + 1;
+            this.hashes[i] = hash;
+        }
+    }
+
+    /**
+     * Return the ID of a word, or -1 if the graph was not built with it.
+     * */
+    public int find(String word) {
+        int hash = word.hashCode();
+        int mask = this.ids.length - 1;
+        for (int i = spread(hash) & mask; this.ids[i] != 0; i = (i + 1) & mask) {
+            if (this.hashes[i] == hash && matches(this.ids[i] - 1, word)) {
+                return this.ids[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    // PRIVATE MEMBERS -------------------------------------------------------------------------------------------------
+
+    private final CharBuffer chars;
+    private final IntBuffer wordOffsets;
+    private final int[] ids;        // One more than the ID stored in each entry, or 0 if the entry is empty
+    private final int[] hashes;     // The hash of the word stored in each entry
+
+    /**
+     * Hash a stored word exactly as String.hashCode hashes the same letters.
+     * */
+    private int hash(int id) {
+        int hash = 0;
+        for (int i = this.wordOffsets.get(id); i < this.wordOffsets.get(id + 1); i++) {
+            hash = 31 * hash + this.chars.get(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Mix the high bits of a string hash into the low bits, which are the only ones the mask keeps.
+     * */
+    private static int spread(int hash) {
+        int mixed = hash * 0x9e3779b9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    private boolean matches(int id, String word) {
+        int start = this.wordOffsets.get(id);
+        if (this.wordOffsets.get(id + 1) - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (this.chars.get(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -1,44 +1,267 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
 public class WordLadders {
     public static void main(String[] args) {
         testAvlTree();
-        ladderGame();
+        WordGraph graph = WordGraph.open("dictionary.txt");
+        ladderGame(graph);
+        ladderGameConcurrent(graph);
+        listComponents(graph);
+        ladderGameDistanceTable(graph);
+        ladderGameCached(graph);
+        ladderGameUpdated(graph);
+        ladderGameAllShortest(graph);
+        ladderGameEditMoves(graph);
+        ladderGameWeighted(graph);
+        ladderGameBudget(graph);
+        graphAnalytics(graph);
+        ladderServer(graph);
     }
 
-    private static void ladderGame() {
-        LadderGame gamePriority = new LadderGamePriority("dictionary.txt");
-        LadderGame gameExhaustive = new LadderGameExhaustive("dictionary.txt");
+    private static void ladderGame(WordGraph graph) {
+        LadderGame gamePriority = new LadderGamePriority(graph);
+        LadderGame gameExhaustive = new LadderGameExhaustive(graph);
+        LadderGame gameBidirectional = new LadderGameExhaustive(graph, true);
+        LadderGame gameLandmark = new LadderGamePriority(graph, new LandmarkHeuristic(graph));
 
         gameExhaustive.play("kiss", "woof");
+        gameBidirectional.play("kiss", "woof");
         gamePriority.play("kiss", "woof");
+        gameLandmark.play("kiss", "woof");
         System.out.println();
 
         gameExhaustive.play("rock", "numb");
+        gameBidirectional.play("rock", "numb");
         gamePriority.play("rock", "numb");
+        gameLandmark.play("rock", "numb");
         System.out.println();
 
         gameExhaustive.play("rums", "numb");
+        gameBidirectional.play("rums", "numb");
         gamePriority.play("rums", "numb");
+        gameLandmark.play("rums", "numb");
         System.out.println();
 
         gameExhaustive.play("jura", "such");
+        gameBidirectional.play("jura", "such");
         gamePriority.play("jura", "such");
+        gameLandmark.play("jura", "such");
         System.out.println();
 
         gameExhaustive.play("stet", "whey");
+        gameBidirectional.play("stet", "whey");
         gamePriority.play("stet", "whey");
+        gameLandmark.play("stet", "whey");
         System.out.println();
 
         gameExhaustive.play("butter", "plates");
+        gameBidirectional.play("butter", "plates");
         gamePriority.play("butter", "plates");
+        gameLandmark.play("butter", "plates");
         System.out.println();
 
         gameExhaustive.play("crafted", "mommies");
+        gameBidirectional.play("crafted", "mommies");
         gamePriority.play("crafted", "mommies");
+        gameLandmark.play("crafted", "mommies");
         System.out.println();
 
         gameExhaustive.play("stone", "money");
+        gameBidirectional.play("stone", "money");
         gamePriority.play("stone", "money");
+        gameLandmark.play("stone", "money");
+
+    }
+
+    private static void ladderGameConcurrent(WordGraph graph) {
+        LadderGame gamePriority = new LadderGamePriority(graph);
+        SearchMetrics metrics = new SearchMetrics();
+        gamePriority.useMetrics(metrics);
+
+        var queries = List.of(
+                new LadderQueryEngine.Query("kiss", "woof"),
+                new LadderQueryEngine.Query("rock", "numb"),
+                new LadderQueryEngine.Query("rums", "numb"),
+                new LadderQueryEngine.Query("jura", "such"),
+                new LadderQueryEngine.Query("stet", "whey"),
+                new LadderQueryEngine.Query("butter", "plates"),
+                new LadderQueryEngine.Query("crafted", "mommies"),
+                new LadderQueryEngine.Query("stone", "money"));
+
+        System.out.println();
+        System.out.println("Seeking A* solutions for " + queries.size() + " queries at once");
+        try (var engine = LadderQueryEngine.withVirtualThreads(gamePriority)) {
+            List<LadderResult> results = engine.solveAll(queries);
+            for (int i = 0; i < queries.size(); i++) {
+                System.out.println(" " + queries.get(i).start() + " -> " + queries.get(i).end() + ":" + gamePriority.format(results.get(i)));
+            }
+        }
+        System.out.println(" " + metrics);
+    }
+
+    private static void listComponents(WordGraph graph) {
+        ComponentIndex components = graph.components();
+
+        System.out.println();
+        System.out.println("Connected components per word length");
+        for (int length = 1; length <= graph.maxLength(); length++) {
+            int words = graph.endIdOfLength(length) - graph.firstIdOfLength(length);
+            if (words == 0) {
+                continue;
+            }
+            System.out.printf(" length %2d: %6d words %5d components, largest %d%n",
+                    length, words, components.componentCount(length), components.componentSizes(length)[0]);
+        }
+    }
+
+    private static void ladderGameDistanceTable(WordGraph graph) {
+
+        // The tables take tens of megabytes next to the dictionary, so they are only built when asked for
+        System.out.println();
+        if (!Boolean.getBoolean("ladders.distanceTables")) {
+            System.out.println("Skipping the distance tables; run with -Dladders.distanceTables=true to build them");
+            return;
+        }
+        LadderGame gameTable = new LadderGameExhaustive(graph);
+        gameTable.useDistanceTable(DistanceTable.open("dictionary.txt", graph));
+
+        System.out.println("Answering short words from the distance tables");
+        gameTable.play("kiss", "woof");
+        gameTable.play("rock", "numb");
+        gameTable.play("stone", "money");
+    }
+
+    private static void ladderGameCached(WordGraph graph) {
+        LadderGame gameCached = new LadderGamePriority(graph);
+        LadderCache cache = new LadderCache(1000);
+        gameCached.useCache(cache);
+
+        System.out.println();
+        System.out.println("Answering repeated queries from the cache");
+        gameCached.play("butter", "plates");
+        gameCached.play("butter", "plates");
+        gameCached.play("plates", "butter");
+        System.out.println(" " + cache);
+    }
+
+    private static void ladderGameUpdated(WordGraph graph) {
+        LadderDictionary dictionary = new LadderDictionary(graph);
+        LadderGame gameUpdated = new LadderGamePriority(dictionary, new LetterDiffHeuristic());
+
+        System.out.println();
+        System.out.println("Adding and removing words while playing");
+        gameUpdated.play("kiss", "woof");
+        dictionary.removeWord("coof");
+        gameUpdated.play("kiss", "woof");
+        dictionary.addWord("wios");
+        gameUpdated.play("kiss", "woof");
+        dictionary.removeWord("wios");
+        dictionary.addWord("coof");
+        gameUpdated.play("kiss", "woof");
+    }
+
+    private static void ladderGameAllShortest(WordGraph graph) {
+        LadderGameExhaustive gameExhaustive = new LadderGameExhaustive(graph);
 
+        System.out.println();
+        ShortestLadders ladders = gameExhaustive.allShortest("rock", "numb");
+        System.out.println("Every shortest ladder from rock -> numb: " + ladders.count() + " of " + ladders.getMoves() + " moves");
+        int shown = 0;
+        for (int[] ladder : ladders) {
+            System.out.println(" " + String.join(" ", ladders.toWords(ladder)));
+            if (++shown == 5) {
+                break;
+            }
+        }
+    }
+
+    private static void ladderGameEditMoves(WordGraph graph) {
+        LadderGame gameEdits = new LadderGameExhaustive(graph);
+        gameEdits.useEditMoves(true);
+
+        System.out.println();
+        System.out.println("Inserting and deleting letters as well");
+        gameEdits.play("kiss", "woof");
+        gameEdits.play("cat", "boats");
+        gameEdits.play("stone", "money");
+    }
+
+    private static void ladderGameWeighted(WordGraph graph) {
+        LadderGame gameDijkstra = new LadderGameWeighted(graph, LetterCosts.vowels(1, 3), false);
+        LadderGame gameVowels = new LadderGameWeighted(graph, LetterCosts.vowels(1, 3), true);
+        LadderGame gameKeyboard = new LadderGameWeighted(graph, LetterCosts.keyboard(), true);
+
+        System.out.println();
+        gameDijkstra.play("kiss", "woof");
+        gameVowels.play("kiss", "woof");
+        gameKeyboard.play("kiss", "woof");
+        gameDijkstra.play("stone", "money");
+        gameVowels.play("stone", "money");
+        gameKeyboard.play("stone", "money");
+    }
+
+    private static void ladderGameBudget(WordGraph graph) {
+        LadderGame gameExhaustive = new LadderGameExhaustive(graph);
+        LadderGame gamePriority = new LadderGamePriority(graph);
+        SearchBudget budget = SearchBudget.unlimited().withMaxExpanded(200);
+
+        System.out.println();
+        System.out.println("Searching within a budget of 200 expanded words");
+        System.out.println(gameExhaustive.format(gameExhaustive.solve("stone", "money", budget)));
+        System.out.println(gamePriority.format(gamePriority.solve("stone", "money", budget)));
+        System.out.println(gamePriority.format(gamePriority.solve("crafted", "mommies", budget)));
+
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+        System.out.println(gameExhaustive.format(gameExhaustive.solve("kiss", "woof", budget.withCancellation(cancellation))));
+    }
+
+    private static void graphAnalytics(WordGraph graph) {
+        LadderAnalytics analytics = new LadderAnalytics(graph);
+
+        System.out.println();
+        System.out.println("The hardest ladders between words of three and four letters");
+        System.out.println(analytics.format(analytics.analyze(3)));
+        System.out.println(analytics.format(analytics.analyze(4)));
+    }
+
+    private static void ladderServer(WordGraph graph) {
+        System.out.println();
+        System.out.println("Asking a server on localhost for ladders");
+        try (LadderServer server = new LadderServer(new LadderDictionary(graph), LadderServer.DEFAULT_TIMEOUT_MILLIS)) {
+            server.start();
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://localhost:" + server.getPort();
+
+            sendToServer(client, HttpRequest.newBuilder(URI.create(base + "/ladder?from=kiss&to=woof")).build());
+            sendToServer(client, HttpRequest.newBuilder(URI.create(base + "/ladder?from=kiss&to=wolf&algo=exhaustive")).build());
+            sendToServer(client, HttpRequest.newBuilder(URI.create(base + "/ladder?from=kiss&to=xyzzy")).build());
+            sendToServer(client, HttpRequest.newBuilder(URI.create(base + "/ladders")).build());
+            String batch = "{\"algo\": \"astar\", \"queries\": [{\"from\": \"rock\", \"to\": \"numb\"}, {\"from\": \"stone\", \"to\": \"money\"}]}";
+            sendToServer(client, HttpRequest.newBuilder(URI.create(base + "/ladders"))
+                    .POST(HttpRequest.BodyPublishers.ofString(batch)).build());
+            String nested = "[".repeat(100_000) + "]".repeat(100_000);
+            sendToServer(client, HttpRequest.newBuilder(URI.create(base + "/ladders"))
+                    .POST(HttpRequest.BodyPublishers.ofString(nested)).build());
+        }
+        catch (IOException ex) {
+            System.out.println("An error occurred talking to the ladder server: " + ex);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sendToServer(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        System.out.println(" " + request.method() + " " + request.uri().getRawPath()
+                + (request.uri().getRawQuery() == null ? "" : "?" + request.uri().getRawQuery())
+                + " -> " + response.statusCode() + " " + response.body());
     }
 
     public static void testAvlTree() {
@@ -55,6 +278,9 @@ public class WordLadders {
             primeTree.insert(number);
         }
 
+        AVLTree<Integer> sortedTree = AVLTree.fromSorted(List.of(primeList));
+        System.out.println("Built from sorted primes: 13 is at rank " + sortedTree.rank(13) + ", rank 6 holds " + sortedTree.select(6));
+
         primeTree.printTree("Prime Tree");
         dwarfTree.printTree( "Dwarf Tree" );
 